@@ -0,0 +1,78 @@
+package com.univer.bookcom.cache;
+
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookRecordCodec implements RecordCodec<BookResponseDto> {
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_NUMBER = Long.MIN_VALUE;
+
+    @Override
+    public void write(BookResponseDto book, DataOutput out) throws IOException {
+        out.writeLong(book.getId());
+        writeNumber(book.getCountChapters(), out);
+        writeNumber(book.getPublicYear(), out);
+        writeString(book.getTitle(), out);
+        writeString(book.getDescription(), out);
+        writeString(book.getBookStatus(), out);
+        List<String> authorNames = book.getAuthorNames();
+        out.writeInt(authorNames != null ? authorNames.size() : 0);
+        if (authorNames != null) {
+            for (String authorName : authorNames) {
+                writeString(authorName, out);
+            }
+        }
+    }
+
+    @Override
+    public BookResponseDto read(DataInput in) throws IOException {
+        long id = in.readLong();
+        Long countChapters = readNumber(in);
+        Long publicYear = readNumber(in);
+        String title = readString(in);
+        String description = readString(in);
+        String bookStatus = readString(in);
+        int authorCount = in.readInt();
+        List<String> authorNames = new ArrayList<>(authorCount);
+        for (int i = 0; i < authorCount; i++) {
+            authorNames.add(readString(in));
+        }
+        return new BookResponseDto(id, title, countChapters, publicYear, description,
+                bookStatus, authorNames);
+    }
+
+    private static void writeNumber(Long value, DataOutput out) throws IOException {
+        out.writeLong(value != null ? value : NULL_NUMBER);
+    }
+
+    private static Long readNumber(DataInput in) throws IOException {
+        long value = in.readLong();
+        return value != NULL_NUMBER ? value : null;
+    }
+
+    // Длина + UTF-8 вместо writeUTF: описание книги может превышать 64 КБ.
+    private static void writeString(String value, DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.univer.bookcom.cache;
+
+import com.univer.bookcom.model.Book;
+import com.univer.bookcom.model.BookStatus;
+import com.univer.bookcom.model.User;
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.Hibernate;
+
+public class BookSearchCache extends QueryCache<BookResponseDto> {
+
+    public BookSearchCache(int maxEntries, Duration expireAfterWrite) {
+        super("book-search", maxEntries, expireAfterWrite, BookResponseDto::getId);
+    }
+
+    public static String byTitle(String title) {
+        return "title:" + title;
+    }
+
+    public static String byAuthor(String author) {
+        return "author:" + author;
+    }
+
+    public static String byYear(long publicYear) {
+        return "year:" + publicYear;
+    }
+
+    public static String byStatus(BookStatus status) {
+        return "status:" + status;
+    }
+
+    public static List<String> tagsOf(Book book) {
+        List<String> tags = new ArrayList<>();
+        if (book.getId() != null) {
+            tags.add(idTag(book.getId()));
+        }
+        tags.add(byTitle(book.getTitle()));
+        tags.add(byYear(book.getPublicYear()));
+        tags.add(byStatus(book.getBookStatus()));
+        if (Hibernate.isInitialized(book.getAuthors())) {
+            book.getAuthors().forEach(author -> tags.add(byAuthor(author.getName())));
+        }
+        return tags;
+    }
+
+    public static List<String> tagsOfAuthor(User author) {
+        List<String> tags = new ArrayList<>();
+        tags.add(byAuthor(author.getName()));
+        if (Hibernate.isInitialized(author.getBooks())) {
+            author.getBooks().forEach(book -> tags.add(idTag(book.getId())));
+        }
+        return tags;
+    }
+
+    public static List<String> tagsOfAuthor(String name, Collection<Long> bookIds) {
+        List<String> tags = new ArrayList<>();
+        tags.add(byAuthor(name));
+        bookIds.forEach(bookId -> tags.add(idTag(bookId)));
+        return tags;
+    }
+}
\ No newline at end of file
@@ -1,79 +1,177 @@
 package com.univer.bookcom.cache;
 
-import com.univer.bookcom.model.Book;
-import com.univer.bookcom.model.Comments;
-import com.univer.bookcom.model.User;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.univer.bookcom.config.CacheProperties;
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.model.dto.response.CommentsResponseDto;
+import com.univer.bookcom.model.dto.response.UserResponseDto;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CacheContainer {
-    private static final Logger log = LoggerFactory.getLogger(CacheContainer.class);
-    private static final int MAX_CACHE_SIZE = 3;
-
-    private final Map<Long, CacheEntry<Book>> bookCache = new LinkedHashMap<>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry<Book>> eldest) {
-            boolean shouldRemove = size() > MAX_CACHE_SIZE;
-            if (shouldRemove) {
-                log.info("Удаление книги из кэша: id = {}", eldest.getKey());
-            }
-            return shouldRemove;
-        }
+    private final CacheRegion<BookResponseDto> bookCache;
 
-        @Override
-        public CacheEntry<Book> put(Long key, CacheEntry<Book> value) {
-            log.info("Добавление книги в кэш: id = {}", key);
-            return super.put(key, value);
-        }
-    };
-
-    private final Map<Long, CacheEntry<User>> userCache = new LinkedHashMap<>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry<User>> eldest) {
-            boolean shouldRemove = size() > MAX_CACHE_SIZE;
-            if (shouldRemove) {
-                log.info("Удаление пользователя из кэша: id = {}", eldest.getKey());
-            }
-            return shouldRemove;
-        }
+    private final CacheRegion<UserResponseDto> userCache;
 
-        @Override
-        public CacheEntry<User> put(Long key, CacheEntry<User> value) {
-            log.info("Добавление пользователя в кэш: id = {}", key);
-            return super.put(key, value);
-        }
-    };
-
-    private final Map<Long, CacheEntry<Comments>> commentsCache = new LinkedHashMap<>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry<Comments>> eldest) {
-            boolean shouldRemove = size() > MAX_CACHE_SIZE;
-            if (shouldRemove) {
-                log.info("Удаление комментария из кэша: id = {}", eldest.getKey());
-            }
-            return shouldRemove;
-        }
+    private final CacheRegion<CommentsResponseDto> commentsCache;
+
+    private final BookSearchCache bookSearchCache;
+
+    private final ExistenceIndex bookIds;
+
+    private final ExistenceIndex userIds;
+
+    private final ExistenceIndex commentIds;
+
+    private final List<ManagedCache> regions = new ArrayList<>();
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final OffHeapTier<BookResponseDto> bookOffHeapTier;
 
-        @Override
-        public CacheEntry<Comments> put(Long key, CacheEntry<Comments> value) {
-            log.info("Добавление комментария в кэш: id = {}", key);
-            return super.put(key, value);
+    public CacheContainer(CacheProperties cacheProperties) {
+        this.refreshExecutor = createRefreshExecutor(cacheProperties.getRefresh());
+        boolean logMutations = cacheProperties.isLogMutations();
+        this.bookCache = createRegion("books", cacheProperties.getBooks(), Weighers::book,
+                logMutations);
+        this.userCache = createRegion("users", cacheProperties.getUsers(), Weighers::user,
+                logMutations);
+        this.commentsCache = createRegion("comments", cacheProperties.getComments(),
+                Weighers::comment, logMutations);
+        int minFrequency = cacheProperties.getRefresh().getMinFrequency();
+        enableRefreshAhead(bookCache, cacheProperties.getBooks(), minFrequency);
+        enableRefreshAhead(userCache, cacheProperties.getUsers(), minFrequency);
+        enableRefreshAhead(commentsCache, cacheProperties.getComments(), minFrequency);
+        this.bookOffHeapTier = createOffHeapTier(cacheProperties.getBookOffHeap());
+        if (bookOffHeapTier != null) {
+            bookCache.enableOverflowTier(bookOffHeapTier,
+                    cacheProperties.getBookOffHeap().getPromoteFrequency());
         }
-    };
+        this.bookSearchCache = new BookSearchCache(cacheProperties.getBookSearch().getMaxEntries(),
+                cacheProperties.getBookSearch().getExpireAfterWrite());
+        this.bookIds = createIndex("book-ids", cacheProperties.getExistence());
+        this.userIds = createIndex("user-ids", cacheProperties.getExistence());
+        this.commentIds = createIndex("comment-ids", cacheProperties.getExistence());
+        regions.addAll(List.of(bookCache, userCache, commentsCache, bookSearchCache));
+        if (bookOffHeapTier != null) {
+            regions.add(bookOffHeapTier);
+        }
+        regions.addAll(bookIds.getRegions());
+        regions.addAll(userIds.getRegions());
+        regions.addAll(commentIds.getRegions());
+    }
 
-    public Map<Long, CacheEntry<Book>> getBookCache() {
+    public CacheRegion<BookResponseDto> getBookCache() {
         return bookCache;
     }
 
-    public Map<Long, CacheEntry<User>> getUserCache() {
+    public CacheRegion<UserResponseDto> getUserCache() {
         return userCache;
     }
 
-    public Map<Long, CacheEntry<Comments>> getCommentsCache() {
+    public CacheRegion<CommentsResponseDto> getCommentsCache() {
         return commentsCache;
     }
+
+    public BookSearchCache getBookSearchCache() {
+        return bookSearchCache;
+    }
+
+    public ExistenceIndex getBookIds() {
+        return bookIds;
+    }
+
+    public ExistenceIndex getUserIds() {
+        return userIds;
+    }
+
+    public ExistenceIndex getCommentIds() {
+        return commentIds;
+    }
+
+    public void setExistenceFiltersTrusted(boolean trusted) {
+        bookIds.setFilterTrusted(trusted);
+        userIds.setFilterTrusted(trusted);
+        commentIds.setFilterTrusted(trusted);
+    }
+
+    public List<ManagedCache> getRegions() {
+        return List.copyOf(regions);
+    }
+
+    public Optional<ManagedCache> findRegion(String name) {
+        return regions.stream().filter(region -> region.getName().equals(name)).findFirst();
+    }
+
+    public void clear() {
+        bookCache.clear();
+        userCache.clear();
+        commentsCache.clear();
+        bookSearchCache.clear();
+        bookIds.clear();
+        userIds.clear();
+        commentIds.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void enableRefreshAhead(CacheRegion<?> cache, CacheProperties.Region region,
+                                    int minFrequency) {
+        if (region.getRefreshAhead() != null) {
+            cache.enableRefreshAhead(region.getRefreshAhead(), minFrequency, refreshExecutor);
+        }
+    }
+
+    private static OffHeapTier<BookResponseDto> createOffHeapTier(
+            CacheProperties.OffHeap offHeap) {
+        if (!offHeap.isEnabled()) {
+            return null;
+        }
+        return new OffHeapTier<>("books-off-heap", new BookRecordCodec(),
+                (int) offHeap.getSlabSize().toBytes(), offHeap.getSlabCount());
+    }
+
+    // Ограниченная очередь: при перегрузке фоновое обновление просто не выполняется,
+    // а запись перезагрузится при обычном промахе.
+    private static ThreadPoolExecutor createRefreshExecutor(CacheProperties.Refresh refresh) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(refresh.getThreads(), refresh.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(refresh.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "cache-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Если задан max-weight, область ограничивается по объёму, а max-entries служит
+    // ожидаемым числом записей.
+    private static <V> CacheRegion<V> createRegion(String name, CacheProperties.Region region,
+                                                   Weigher<V> weigher, boolean logMutations) {
+        if (region.getMaxWeight() == null) {
+            return new CacheRegion<>(name, region.getMaxEntries(),
+                    region.getExpireAfterWrite(), region.getExpireAfterAccess(), logMutations);
+        }
+        return new CacheRegion<>(name, region.getMaxEntries(), region.getMaxWeight().toBytes(),
+                weigher, region.getExpireAfterWrite(), region.getExpireAfterAccess(),
+                logMutations);
+    }
+
+    private static ExistenceIndex createIndex(String name, CacheProperties.Existence existence) {
+        return new ExistenceIndex(name, existence.getExpectedInsertions(),
+                existence.getFalsePositiveRate(), existence.getMaxEntries(),
+                existence.getPositiveTtl(), existence.getNegativeTtl());
+    }
 }
\ No newline at end of file
@@ -3,10 +3,21 @@ package com.univer.bookcom.cache;
 public class CacheEntry<T> {
     private final T value;
     private final long timestamp;
+    private volatile long lastAccess;
+    private int weight = 1;
 
     public CacheEntry(T value) {
         this.value = value;
         this.timestamp = System.currentTimeMillis();
+        this.lastAccess = timestamp;
+    }
+
+    // Для записей, возвращаемых из другого уровня кэша: срок жизни отсчитывается от исходной
+    // записи, а простой - от момента возврата.
+    CacheEntry(T value, long timestamp) {
+        this.value = value;
+        this.timestamp = timestamp;
+        this.lastAccess = System.currentTimeMillis();
     }
 
     public T getValue() {
@@ -16,4 +27,25 @@ public class CacheEntry<T> {
     public long getTimestamp() {
         return timestamp;
     }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    void touch(long now) {
+        this.lastAccess = now;
+    }
+
+    boolean isExpired(long now, long expireAfterWriteMillis, long expireAfterAccessMillis) {
+        return (expireAfterWriteMillis > 0 && now - timestamp >= expireAfterWriteMillis)
+                || (expireAfterAccessMillis > 0 && now - lastAccess >= expireAfterAccessMillis);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.univer.bookcom.cache;
+
+/**
+ * Изменение кэша, записанное внутри транзакции и применяемое после её фиксации.
+ * Для {@link Type#SEARCH_INVALIDATED} в {@code value} передаются теги результатов поиска,
+ * {@link Type#SEARCH_CLEARED} сбрасывает кэш поиска целиком. Для {@link Type#ID_CONFIRMED}
+ * и {@link Type#ID_MISSING} в {@code value} передаётся {@link ExistenceIndex.Check}.
+ */
+public record CacheEvent(Type type, Long id, Object value) {
+
+    public enum Type {
+        BOOK_EVICTED,
+        BOOK_CREATED,
+        BOOK_DELETED,
+        USER_EVICTED,
+        USER_CREATED,
+        USER_DELETED,
+        COMMENT_EVICTED,
+        COMMENT_CREATED,
+        COMMENT_DELETED,
+        SEARCH_INVALIDATED,
+        SEARCH_CLEARED,
+        ID_CONFIRMED,
+        ID_MISSING
+    }
+
+    // Результаты проверок существования относятся только к локальному кэшу узла.
+    public boolean isLocal() {
+        return type == Type.ID_CONFIRMED || type == Type.ID_MISSING;
+    }
+}
\ No newline at end of file
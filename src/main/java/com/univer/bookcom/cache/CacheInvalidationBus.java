@@ -0,0 +1,375 @@
+package com.univer.bookcom.cache;
+
+import com.univer.bookcom.config.CacheProperties;
+import jakarta.annotation.PreDestroy;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Шина межузловой инвалидации кэша через Postgres {@code NOTIFY}/{@code LISTEN}.
+ * Изменения публикуются после фиксации породившей их транзакции отдельным потоком с
+ * повторами: ошибка {@code pg_notify} не может прервать бизнес-транзакцию. Подписка и
+ * публикация держат собственные соединения в обход пула, поэтому не занимают соединения
+ * запросов и не ждут их при исчерпании пула. Если изменения отправить не удалось, после
+ * восстановления соединения другим узлам уходит сигнал полного сброса кэша. Полученные
+ * от других узлов изменения применяются как сброс записей: значения по шине не передаются.
+ */
+@Component
+public class CacheInvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final int MAX_PAYLOAD_LENGTH = 7500;
+    private static final String EVENT_SEPARATOR = ";";
+    private static final String FIELD_SEPARATOR = ":";
+    private static final String TAG_SEPARATOR = ",";
+    private static final String RESET = "RESET";
+
+    private final CacheContainer cacheContainer;
+    private final ExistenceIndexLoader existenceIndexLoader;
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheProperties.Bus properties;
+    private final ThreadPoolExecutor publisher;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private volatile boolean resetPending;
+    private Thread listener;
+    // Используется только потоком публикации.
+    private Connection publishConnection;
+
+    public CacheInvalidationBus(CacheContainer cacheContainer,
+                                ExistenceIndexLoader existenceIndexLoader,
+                                DataSourceProperties dataSourceProperties,
+                                CacheProperties cacheProperties) {
+        this.cacheContainer = cacheContainer;
+        this.existenceIndexLoader = existenceIndexLoader;
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = cacheProperties.getBus();
+        this.publisher = createPublisher(properties.getPublishQueueCapacity());
+    }
+
+    public void publish(List<CacheEvent> events) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<CacheEvent> shared = events.stream().filter(event -> !event.isLocal()).toList();
+        if (shared.isEmpty()) {
+            return;
+        }
+        List<String> payloads = encode(shared);
+        try {
+            publisher.execute(() -> send(payloads));
+        } catch (RejectedExecutionException e) {
+            resetPending = true;
+            log.error("Очередь инвалидации кэша переполнена, другим узлам будет отправлен сброс");
+        }
+    }
+
+    // Подписка выполняется до загрузки индексов существования, чтобы не потерять ID,
+    // созданные другими узлами между загрузкой и подпиской.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        Connection connection = connectQuietly();
+        if (connection == null) {
+            cacheContainer.setExistenceFiltersTrusted(false);
+        }
+        listener = new Thread(() -> listen(connection), "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Шина инвалидации кэша запущена: канал {}, узел {}",
+                properties.getChannel(), nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        try {
+            publisher.execute(() -> closeQuietly(publishConnection));
+        } catch (RejectedExecutionException e) {
+            log.debug("Соединение публикации закроется вместе с приложением");
+        }
+        publisher.shutdown();
+    }
+
+    // Повтор отправляет пакет целиком: повторная инвалидация безвредна. Если все попытки
+    // исчерпаны, изменения потеряны, и при первой удачной отправке другие узлы сбросят кэш.
+    private void send(List<String> payloads) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (publishConnection == null) {
+                    publishConnection = openConnection();
+                }
+                if (resetPending) {
+                    resetPending = false;
+                    notify(List.of(nodeId + EVENT_SEPARATOR + RESET));
+                    log.warn("Другим узлам отправлен сброс кэша после потери инвалидаций");
+                }
+                notify(payloads);
+                return;
+            } catch (SQLException e) {
+                closeQuietly(publishConnection);
+                publishConnection = null;
+                if (attempt >= properties.getPublishAttempts()) {
+                    resetPending = true;
+                    log.error("Не удалось отправить инвалидацию кэша другим узлам: {}",
+                            e.getMessage());
+                    return;
+                }
+                log.warn("Ошибка отправки инвалидации кэша, попытка {}: {}",
+                        attempt, e.getMessage());
+            }
+            try {
+                Thread.sleep(properties.getPublishRetryDelay().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resetPending = true;
+                return;
+            }
+        }
+    }
+
+    private void notify(List<String> payloads) throws SQLException {
+        try (PreparedStatement notify = publishConnection
+                .prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : payloads) {
+                notify.setString(1, properties.getChannel());
+                notify.setString(2, payload);
+                notify.execute();
+            }
+        }
+    }
+
+    private void listen(Connection initial) {
+        Connection connection = initial;
+        while (running) {
+            try {
+                if (connection == null) {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                    connection = connect();
+                    // Пока соединения не было, уведомления терялись: локальные данные
+                    // могли устареть, а Bloom-фильтр - пропустить новые ID.
+                    resync();
+                    log.warn("Подписка на инвалидацию кэша восстановлена, кэш сброшен");
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications((int) properties.getPollTimeout().toMillis());
+                if (notifications != null) {
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                log.error("Потеряно соединение шины инвалидации кэша: {}", e.getMessage());
+                cacheContainer.setExistenceFiltersTrusted(false);
+                closeQuietly(connection);
+                connection = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    private void resync() {
+        cacheContainer.clear();
+        existenceIndexLoader.loadKnownIds();
+        cacheContainer.setExistenceFiltersTrusted(true);
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = openConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + properties.getChannel());
+        }
+        return connection;
+    }
+
+    // Соединение драйвера в обход пула: оно не ограничено его размером и таймаутами.
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private Connection connectQuietly() {
+        try {
+            return connect();
+        } catch (SQLException e) {
+            log.error("Не удалось подписаться на инвалидацию кэша: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void receive(String payload) {
+        int start = payload.indexOf(EVENT_SEPARATOR);
+        if (start < 0 || payload.substring(0, start).equals(nodeId)) {
+            return;
+        }
+        if (payload.substring(start + 1).equals(RESET)) {
+            resync();
+            log.warn("Узел {} потерял инвалидации, кэш сброшен", payload.substring(0, start));
+            return;
+        }
+        for (String encoded : payload.substring(start + 1).split(EVENT_SEPARATOR)) {
+            try {
+                apply(decode(encoded));
+            } catch (RuntimeException e) {
+                log.warn("Некорректное сообщение инвалидации кэша {}: {}", encoded, e.getMessage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(CacheEvent event) {
+        Long id = event.id();
+        switch (event.type()) {
+            case BOOK_EVICTED -> cacheContainer.getBookCache().remove(id);
+            case BOOK_CREATED -> cacheContainer.getBookIds().add(id);
+            case BOOK_DELETED -> {
+                cacheContainer.getBookCache().remove(id);
+                cacheContainer.getBookIds().remove(id);
+            }
+            case USER_EVICTED -> cacheContainer.getUserCache().remove(id);
+            case USER_CREATED -> cacheContainer.getUserIds().add(id);
+            case USER_DELETED -> {
+                cacheContainer.getUserCache().remove(id);
+                cacheContainer.getUserIds().remove(id);
+            }
+            case COMMENT_EVICTED -> cacheContainer.getCommentsCache().remove(id);
+            case COMMENT_CREATED -> cacheContainer.getCommentIds().add(id);
+            case COMMENT_DELETED -> {
+                cacheContainer.getCommentsCache().remove(id);
+                cacheContainer.getCommentIds().remove(id);
+            }
+            case SEARCH_INVALIDATED -> cacheContainer.getBookSearchCache()
+                    .invalidate((List<String>) event.value());
+            case SEARCH_CLEARED -> cacheContainer.getBookSearchCache().clear();
+        }
+        log.debug("Применена инвалидация кэша с другого узла: {} {}", event.type(), id);
+    }
+
+    // Формат: "<узел>;<тип>:<id>;<тип>:<id>;...", теги поиска кодируются URLEncoder.
+    // Длина уведомления в Postgres ограничена, поэтому пакет делится на части.
+    private List<String> encode(List<CacheEvent> events) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (CacheEvent event : events) {
+            for (String encoded : encode(event)) {
+                if (payload.length() + encoded.length() + 1 > MAX_PAYLOAD_LENGTH
+                        && payload.length() > nodeId.length()) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(nodeId);
+                }
+                payload.append(EVENT_SEPARATOR).append(encoded);
+            }
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    // Список тегов, не помещающийся в одно уведомление, делится на несколько событий;
+    // если не помещается даже один тег, другим узлам уходит полный сброс кэша поиска.
+    @SuppressWarnings("unchecked")
+    private List<String> encode(CacheEvent event) {
+        if (event.type() != CacheEvent.Type.SEARCH_INVALIDATED) {
+            return List.of(event.type() + FIELD_SEPARATOR + event.id());
+        }
+        String prefix = event.type() + FIELD_SEPARATOR;
+        int limit = MAX_PAYLOAD_LENGTH - nodeId.length() - EVENT_SEPARATOR.length();
+        List<String> encoded = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder(prefix);
+        for (String tag : (List<String>) event.value()) {
+            String value = URLEncoder.encode(tag, StandardCharsets.UTF_8);
+            if (prefix.length() + value.length() > limit) {
+                return List.of(CacheEvent.Type.SEARCH_CLEARED + FIELD_SEPARATOR);
+            }
+            if (chunk.length() > prefix.length()) {
+                if (chunk.length() + TAG_SEPARATOR.length() + value.length() > limit) {
+                    encoded.add(chunk.toString());
+                    chunk = new StringBuilder(prefix);
+                } else {
+                    chunk.append(TAG_SEPARATOR);
+                }
+            }
+            chunk.append(value);
+        }
+        encoded.add(chunk.toString());
+        return encoded;
+    }
+
+    private static CacheEvent decode(String encoded) {
+        int separator = encoded.indexOf(FIELD_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException(encoded);
+        }
+        CacheEvent.Type type = CacheEvent.Type.valueOf(encoded.substring(0, separator));
+        String value = encoded.substring(separator + 1);
+        if (type == CacheEvent.Type.SEARCH_CLEARED) {
+            return new CacheEvent(type, null, null);
+        }
+        if (type == CacheEvent.Type.SEARCH_INVALIDATED) {
+            List<String> tags = Arrays.stream(value.split(TAG_SEPARATOR))
+                    .map(tag -> URLDecoder.decode(tag, StandardCharsets.UTF_8))
+                    .toList();
+            return new CacheEvent(type, null, tags);
+        }
+        return new CacheEvent(type, Long.valueOf(value), null);
+    }
+
+    // Одна нить сохраняет порядок уведомлений; очередь ограничена, при переполнении
+    // изменения заменяются сбросом кэша на других узлах.
+    private static ThreadPoolExecutor createPublisher(int queueCapacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-invalidation-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Ошибка закрытия соединения шины инвалидации: {}", e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,784 @@
+package com.univer.bookcom.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class CacheRegion<V> implements ManagedCache {
+    private static final Logger log = LoggerFactory.getLogger(CacheRegion.class);
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_ENTRIES_PER_SEGMENT = 16;
+    private static final int WINDOW_DIVISOR = 100;
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int EXPIRATION_SCAN_LIMIT = 4;
+    // Узел LinkedHashMap, ключ Long и CacheEntry без учёта самого значения.
+    private static final long ENTRY_OVERHEAD_BYTES = 112;
+
+    private final String name;
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+    private final long expireAfterWriteMillis;
+    private final long expireAfterAccessMillis;
+    private final Map<Long, Load<V>> inFlight = new ConcurrentHashMap<>();
+    private final CacheStats stats = new CacheStats();
+    private final boolean logMutations;
+    private final Weigher<V> weigher;
+    private long refreshAheadMillis;
+    private int refreshMinFrequency;
+    private Executor refreshExecutor;
+    private OverflowTier<V> overflowTier;
+    private int promoteFrequency;
+
+    public CacheRegion(String name, int maxSize, Duration expireAfterWrite,
+                       Duration expireAfterAccess) {
+        this(name, maxSize, expireAfterWrite, expireAfterAccess, false);
+    }
+
+    public CacheRegion(String name, int maxSize, Duration expireAfterWrite,
+                       Duration expireAfterAccess, boolean logMutations) {
+        this(name, maxSize, 0, null, expireAfterWrite, expireAfterAccess, logMutations);
+    }
+
+    /**
+     * Область с ограничением по объёму: если задан {@code weigher}, вытеснение удерживает
+     * суммарный вес записей в пределах {@code maxWeight} байт, а {@code maxSize} задаёт лишь
+     * ожидаемое число записей для оценки частоты. Без {@code weigher} каждая запись весит 1.
+     */
+    @SuppressWarnings("unchecked")
+    public CacheRegion(String name, int maxSize, long maxWeight, Weigher<V> weigher,
+                       Duration expireAfterWrite, Duration expireAfterAccess,
+                       boolean logMutations) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + maxSize);
+        }
+        if (weigher != null && maxWeight <= 0) {
+            throw new IllegalArgumentException(
+                    "Объём кэша должен быть положительным: " + maxWeight);
+        }
+        this.name = name;
+        this.weigher = weigher;
+        int segmentCount = Math.min(MAX_SEGMENTS,
+                Integer.highestOneBit(Math.max(1, maxSize / MIN_ENTRIES_PER_SEGMENT)));
+        int segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+        long segmentWeight = weigher != null
+                ? (maxWeight + segmentCount - 1) / segmentCount : segmentCapacity;
+        this.segments = (Segment<V>[]) new Segment<?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, segmentWeight);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.expireAfterWriteMillis = expireAfterWrite != null ? expireAfterWrite.toMillis() : 0;
+        this.expireAfterAccessMillis = expireAfterAccess != null
+                ? expireAfterAccess.toMillis() : 0;
+        this.logMutations = logMutations;
+    }
+
+    /**
+     * Включает упреждающее обновление: если до истечения expire-after-write осталось меньше
+     * {@code refreshAhead}, а ключ запрашивается не реже {@code minFrequency} по оценке
+     * частоты, значение перезагружается в фоне, а до конца загрузки отдаётся текущее.
+     * Вызывается до начала работы с областью.
+     */
+    public void enableRefreshAhead(Duration refreshAhead, int minFrequency, Executor executor) {
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.refreshMinFrequency = minFrequency;
+        this.refreshExecutor = executor;
+    }
+
+    /**
+     * Подключает второй уровень: вытесненные по размеру записи переносятся в него, а при
+     * промахе запись отдаётся оттуда и возвращается в кучу, если ключ запрашивается не реже
+     * {@code promoteFrequency} по оценке частоты. Вызывается до начала работы с областью.
+     */
+    public void enableOverflowTier(OverflowTier<V> tier, int promoteFrequency) {
+        this.overflowTier = tier;
+        this.promoteFrequency = promoteFrequency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public CacheEntry<V> get(Long key) {
+        Segment<V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        segment.lock.lock();
+        try {
+            segment.sketch.increment(key);
+            CacheEntry<V> entry = segment.access(key);
+            if (entry == null) {
+                stats.recordMiss();
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                segment.removals++;
+                segment.remove(key);
+                invalidateOverflow(key);
+                stats.recordMiss();
+                stats.recordEviction(RemovalCause.EXPIRED, 1);
+                log.debug("Запись кэша {} устарела: id = {}", name, key);
+                return null;
+            }
+            entry.touch(now);
+            stats.recordHit();
+            return entry;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает значение из кэша, а при промахе загружает его через {@code loader}.
+     * Одновременные промахи по одному ключу объединяются: загрузку выполняет первый поток,
+     * остальные ждут её результата. Если загрузчик вернул {@code null}, значение не кэшируется.
+     */
+    public V get(Long key, Function<Long, V> loader) {
+        CacheEntry<V> entry = get(key);
+        if (entry != null) {
+            if (shouldRefresh(key, entry)) {
+                refreshAsync(key, loader, entry.getValue());
+            }
+            return entry.getValue();
+        }
+        Load<V> load = new Load<>();
+        Load<V> existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            log.debug("Ожидание загрузки в кэш {}: id = {}", name, key);
+            return await(existing);
+        }
+        try {
+            entry = peek(key);
+            if (entry == null) {
+                entry = fromOverflowTier(key, load);
+            }
+            V value = entry != null ? entry.getValue() : load(key, loader);
+            if (entry == null && value != null) {
+                put(key, new CacheEntry<>(value), load);
+            }
+            load.future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Загружает одним вызовом {@code loader} те из {@code keys}, которых нет в кэше и которые
+     * не загружаются в этот момент другими потоками. Как и в {@link #get(Long, Function)},
+     * загруженное значение не записывается, если ключ инвалидирован во время загрузки.
+     */
+    public void loadAll(Collection<Long> keys,
+                        Function<Collection<Long>, Map<Long, V>> loader) {
+        Map<Long, Load<V>> loads = new LinkedHashMap<>();
+        for (Long key : keys) {
+            Load<V> load = new Load<>();
+            if (peek(key) == null && inFlight.putIfAbsent(key, load) == null) {
+                loads.put(key, load);
+            }
+        }
+        if (loads.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Map<Long, V> values = loader.apply(List.copyOf(loads.keySet()));
+            success = true;
+            loads.forEach((key, load) -> {
+                V value = values.get(key);
+                if (value != null) {
+                    put(key, new CacheEntry<>(value), load);
+                }
+                load.future.complete(value);
+            });
+        } catch (RuntimeException e) {
+            loads.values().forEach(load -> load.future.completeExceptionally(e));
+            throw e;
+        } finally {
+            stats.recordLoad(System.nanoTime() - start, success);
+            loads.forEach(inFlight::remove);
+        }
+    }
+
+    public boolean containsKey(Long key) {
+        Segment<V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        segment.lock.lock();
+        try {
+            CacheEntry<V> entry = segment.lookup(key);
+            return entry != null && !isExpired(entry, now);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public CacheEntry<V> put(Long key, CacheEntry<V> value) {
+        return put(key, value, null);
+    }
+
+    // Результат загрузки load записывается, только если её не отменил remove или внешний
+    // put: проверка и запись выполняются под одной блокировкой сегмента. Обращение к ключу
+    // уже учтено в частоте при промахе, поэтому повторно не считается. Копия ключа во втором
+    // уровне после записи устаревает и снимается под той же блокировкой.
+    private CacheEntry<V> put(Long key, CacheEntry<V> value, Load<V> load) {
+        value.setWeight(weigher != null ? weigher.weigh(value.getValue()) : 1);
+        Segment<V> segment = segmentFor(key);
+        List<Map.Entry<Long, CacheEntry<V>>> evicted = new ArrayList<>();
+        CacheEntry<V> previous;
+        long removals;
+        long now = System.currentTimeMillis();
+        segment.lock.lock();
+        try {
+            if (load != null && load.invalidated) {
+                log.debug("Загрузка в кэш {} отменена инвалидацией: id = {}", name, key);
+                return null;
+            }
+            expireEldest(segment, now);
+            if (load == null) {
+                segment.sketch.increment(key);
+                // Внешняя запись новее данных, которые читает идущая загрузка.
+                Load<V> pending = inFlight.get(key);
+                if (pending != null) {
+                    pending.invalidated = true;
+                }
+            }
+            previous = segment.put(key, value, evicted);
+            invalidateOverflow(key);
+            removals = segment.removals;
+        } finally {
+            segment.lock.unlock();
+        }
+        demote(segment, removals, evicted, now);
+        if (!evicted.isEmpty()) {
+            stats.recordEviction(RemovalCause.SIZE, evicted.size());
+        }
+        if (logMutations) {
+            log.info("Добавление в кэш {}: id = {}", name, key);
+            for (Map.Entry<Long, CacheEntry<V>> entry : evicted) {
+                log.info("Удаление из кэша {}: id = {}", name, entry.getKey());
+            }
+        }
+        return previous;
+    }
+
+    public CacheEntry<V> remove(Long key) {
+        Segment<V> segment = segmentFor(key);
+        CacheEntry<V> removed;
+        segment.lock.lock();
+        try {
+            Load<V> load = inFlight.get(key);
+            if (load != null) {
+                load.invalidated = true;
+            }
+            segment.removals++;
+            removed = segment.remove(key);
+            invalidateOverflow(key);
+        } finally {
+            segment.lock.unlock();
+        }
+        if (removed != null) {
+            stats.recordEviction(RemovalCause.EXPLICIT, 1);
+            if (logMutations) {
+                log.info("Удаление из кэша {}: id = {}", name, key);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean evict(String key) {
+        return remove(Long.valueOf(key)) != null;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                bytes += segment.sketch.sizeInBytes() + (weigher != null
+                        ? segment.weight() : segment.size() * ENTRY_OVERHEAD_BYTES);
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public Set<Long> keySet() {
+        Set<Long> keys = new HashSet<>();
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                keys.addAll(segment.window.keySet());
+                keys.addAll(segment.probation.keySet());
+                keys.addAll(segment.protectedEntries.keySet());
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Возвращает до {@code limit} ключей, самых частых по оценке частоты, в порядке убывания.
+     */
+    public List<Long> hotKeys(int limit) {
+        List<long[]> candidates = new ArrayList<>();
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                for (Map<Long, CacheEntry<V>> entries : List.of(segment.protectedEntries,
+                        segment.probation, segment.window)) {
+                    for (Long key : entries.keySet()) {
+                        candidates.add(new long[] {key, segment.sketch.frequency(key)});
+                    }
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparingLong((long[] candidate) -> candidate[1]).reversed())
+                .limit(limit)
+                .map(candidate -> candidate[0])
+                .toList();
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            segment.lock.lock();
+            try {
+                stats.recordEviction(RemovalCause.EXPLICIT, segment.size());
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        if (overflowTier != null) {
+            overflowTier.clear();
+        }
+    }
+
+    private CacheEntry<V> peek(Long key) {
+        Segment<V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        segment.lock.lock();
+        try {
+            CacheEntry<V> entry = segment.lookup(key);
+            return entry != null && !isExpired(entry, now) ? entry : null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    // Сериализация и запись во второй уровень идут вне блокировки сегмента. Если за это
+    // время по сегменту прошло удаление или ключ снова записан в кучу, перенесённая запись
+    // могла устареть, поэтому она снимается с уровня под блокировкой, как и в remove.
+    private void demote(Segment<V> segment, long removals,
+                        List<Map.Entry<Long, CacheEntry<V>>> evicted, long now) {
+        if (overflowTier == null || evicted.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Long, CacheEntry<V>> entry : evicted) {
+            if (!isExpired(entry.getValue(), now)) {
+                overflowTier.store(entry.getKey(), entry.getValue());
+            }
+        }
+        segment.lock.lock();
+        try {
+            for (Map.Entry<Long, CacheEntry<V>> entry : evicted) {
+                if (segment.removals != removals || segment.lookup(entry.getKey()) != null) {
+                    overflowTier.invalidate(entry.getKey());
+                }
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    // Вызывается под блокировкой сегмента ключа.
+    private void invalidateOverflow(Long key) {
+        if (overflowTier != null) {
+            overflowTier.invalidate(key);
+        }
+    }
+
+    private CacheEntry<V> fromOverflowTier(Long key, Load<V> load) {
+        if (overflowTier == null) {
+            return null;
+        }
+        Segment<V> segment = segmentFor(key);
+        boolean promote;
+        segment.lock.lock();
+        try {
+            promote = segment.sketch.frequency(key) >= promoteFrequency;
+        } finally {
+            segment.lock.unlock();
+        }
+        CacheEntry<V> entry = promote ? overflowTier.take(key) : overflowTier.peek(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            overflowTier.invalidate(key);
+            return null;
+        }
+        if (promote) {
+            put(key, entry, load);
+            log.debug("Запись кэша {} возвращена в кучу из второго уровня: id = {}", name, key);
+        }
+        return entry;
+    }
+
+    private boolean shouldRefresh(Long key, CacheEntry<V> entry) {
+        if (refreshExecutor == null || expireAfterWriteMillis == 0) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - entry.getTimestamp();
+        if (age < expireAfterWriteMillis - refreshAheadMillis || inFlight.containsKey(key)) {
+            return false;
+        }
+        Segment<V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.sketch.frequency(key) >= refreshMinFrequency;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    // Фоновая загрузка регистрируется в inFlight, поэтому промах по тому же ключу дождётся
+    // её, а не пойдёт в БД повторно, и инвалидация во время загрузки так же отменит запись.
+    private void refreshAsync(Long key, Function<Long, V> loader, V current) {
+        Load<V> load = new Load<>();
+        if (inFlight.putIfAbsent(key, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, loader, load));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, load);
+            load.future.complete(current);
+            log.debug("Очередь обновления кэша {} заполнена, id = {} обновится при промахе",
+                    name, key);
+        }
+    }
+
+    private void refresh(Long key, Function<Long, V> loader, Load<V> load) {
+        try {
+            V value = load(key, loader);
+            if (value == null) {
+                remove(key);
+            } else {
+                put(key, new CacheEntry<>(value), load);
+                log.debug("Запись кэша {} обновлена заранее: id = {}", name, key);
+            }
+            load.future.complete(value);
+        } catch (RuntimeException e) {
+            load.future.completeExceptionally(e);
+            log.warn("Ошибка фонового обновления кэша {}: id = {}: {}",
+                    name, key, e.getMessage());
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private V load(Long key, Function<Long, V> loader) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            V value = loader.apply(key);
+            success = true;
+            return value;
+        } finally {
+            stats.recordLoad(System.nanoTime() - start, success);
+        }
+    }
+
+    private static <V> V await(Load<V> load) {
+        try {
+            return load.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isExpired(CacheEntry<V> entry, long now) {
+        return entry.isExpired(now, expireAfterWriteMillis, expireAfterAccessMillis);
+    }
+
+    // Ленивая очистка: при записи просматривается несколько старейших записей каждой
+    // области сегмента, поэтому устаревшие записи не копятся без отдельного потока.
+    private void expireEldest(Segment<V> segment, long now) {
+        if (expireAfterWriteMillis == 0 && expireAfterAccessMillis == 0) {
+            return;
+        }
+        expireEldest(segment, segment.window, now);
+        expireEldest(segment, segment.probation, now);
+        expireEldest(segment, segment.protectedEntries, now);
+    }
+
+    private void expireEldest(Segment<V> segment, Map<Long, CacheEntry<V>> entries, long now) {
+        Iterator<Map.Entry<Long, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+        for (int i = 0; i < EXPIRATION_SCAN_LIMIT && iterator.hasNext(); i++) {
+            Map.Entry<Long, CacheEntry<V>> entry = iterator.next();
+            if (isExpired(entry.getValue(), now)) {
+                iterator.remove();
+                segment.adjust(entries, -entry.getValue().getWeight());
+                segment.removals++;
+                invalidateOverflow(entry.getKey());
+                stats.recordEviction(RemovalCause.EXPIRED, 1);
+                log.debug("Запись кэша {} устарела: id = {}", name, entry.getKey());
+            }
+        }
+    }
+
+    private Segment<V> segmentFor(Long key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & segmentMask];
+    }
+
+    private static final class Load<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+
+    /**
+     * Сегмент с политикой W-TinyLFU: новые ключи попадают в небольшое LRU-окно, а вытесненный
+     * из окна кандидат проходит в основную область, только если по оценке частоты обращается
+     * чаще, чем жертвы из испытательной зоны, которые освободят для него место. Основная
+     * область - сегментированный LRU: повторное обращение переводит запись из испытательной
+     * зоны в защищённую. Ёмкости задаются в единицах веса записей. Порядок LRU ведётся
+     * явно: запись переносится в конец только при обращении через {@link #access} и при
+     * замене значения, поэтому {@link #lookup} не влияет на выбор жертв.
+     */
+    private static final class Segment<V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Long, CacheEntry<V>> window = new LinkedHashMap<>();
+        private final LinkedHashMap<Long, CacheEntry<V>> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<Long, CacheEntry<V>> protectedEntries =
+                new LinkedHashMap<>();
+        private final FrequencySketch sketch;
+        private final long windowCapacity;
+        private final long mainCapacity;
+        private final long protectedCapacity;
+        private long windowWeight;
+        private long probationWeight;
+        private long protectedWeight;
+        // Счётчик удалений, явных и по сроку: по нему перенос во второй уровень узнаёт
+        // о гонке с ними.
+        private long removals;
+
+        private Segment(int expectedEntries, long capacity) {
+            this.windowCapacity = Math.max(1, capacity / WINDOW_DIVISOR);
+            this.mainCapacity = capacity - windowCapacity;
+            this.protectedCapacity = mainCapacity * PROTECTED_PERCENT / 100;
+            this.sketch = new FrequencySketch(expectedEntries);
+        }
+
+        private Map<Long, CacheEntry<V>> find(Long key) {
+            if (window.containsKey(key)) {
+                return window;
+            }
+            if (probation.containsKey(key)) {
+                return probation;
+            }
+            if (protectedEntries.containsKey(key)) {
+                return protectedEntries;
+            }
+            return null;
+        }
+
+        private CacheEntry<V> lookup(Long key) {
+            CacheEntry<V> entry = window.get(key);
+            if (entry == null) {
+                entry = probation.get(key);
+            }
+            if (entry == null) {
+                entry = protectedEntries.get(key);
+            }
+            return entry;
+        }
+
+        private CacheEntry<V> access(Long key) {
+            CacheEntry<V> entry = moveToTail(window, key);
+            if (entry != null) {
+                return entry;
+            }
+            entry = moveToTail(protectedEntries, key);
+            if (entry != null) {
+                return entry;
+            }
+            entry = removeFrom(probation, key);
+            if (entry != null) {
+                add(protectedEntries, key, entry);
+                demoteProtected();
+            }
+            return entry;
+        }
+
+        private CacheEntry<V> put(Long key, CacheEntry<V> entry,
+                                  List<Map.Entry<Long, CacheEntry<V>>> evicted) {
+            Map<Long, CacheEntry<V>> owner = find(key);
+            CacheEntry<V> previous = add(owner != null ? owner : window, key, entry);
+            while (windowWeight > windowCapacity) {
+                Map.Entry<Long, CacheEntry<V>> candidate = eldest(window);
+                removeFrom(window, candidate.getKey());
+                admit(candidate, evicted);
+            }
+            demoteProtected();
+            // Замена значения более тяжёлым могла переполнить основную область.
+            while (probationWeight + protectedWeight > mainCapacity) {
+                Map.Entry<Long, CacheEntry<V>> victim =
+                        eldest(probation.isEmpty() ? protectedEntries : probation);
+                remove(victim.getKey());
+                evicted.add(victim);
+            }
+            return previous;
+        }
+
+        private void admit(Map.Entry<Long, CacheEntry<V>> candidate,
+                           List<Map.Entry<Long, CacheEntry<V>>> evicted) {
+            long weight = candidate.getValue().getWeight();
+            if (weight > mainCapacity) {
+                evicted.add(candidate);
+                return;
+            }
+            List<Map.Entry<Long, CacheEntry<V>>> victims = new ArrayList<>();
+            long excess = probationWeight + protectedWeight + weight - mainCapacity;
+            int candidateFrequency = sketch.frequency(candidate.getKey());
+            for (LinkedHashMap<Long, CacheEntry<V>> source : List.of(probation, protectedEntries)) {
+                Iterator<Map.Entry<Long, CacheEntry<V>>> iterator = source.entrySet().iterator();
+                while (excess > 0 && iterator.hasNext()) {
+                    Map.Entry<Long, CacheEntry<V>> victim = iterator.next();
+                    if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                        evicted.add(candidate);
+                        return;
+                    }
+                    victims.add(victim);
+                    excess -= victim.getValue().getWeight();
+                }
+            }
+            for (Map.Entry<Long, CacheEntry<V>> victim : victims) {
+                remove(victim.getKey());
+                evicted.add(victim);
+            }
+            add(probation, candidate.getKey(), candidate.getValue());
+        }
+
+        private void demoteProtected() {
+            while (protectedWeight > protectedCapacity) {
+                Map.Entry<Long, CacheEntry<V>> demoted = eldest(protectedEntries);
+                removeFrom(protectedEntries, demoted.getKey());
+                add(probation, demoted.getKey(), demoted.getValue());
+            }
+        }
+
+        private CacheEntry<V> remove(Long key) {
+            Map<Long, CacheEntry<V>> owner = find(key);
+            return owner != null ? removeFrom(owner, key) : null;
+        }
+
+        private CacheEntry<V> add(Map<Long, CacheEntry<V>> map, Long key, CacheEntry<V> entry) {
+            CacheEntry<V> previous = map.remove(key);
+            map.put(key, entry);
+            adjust(map, entry.getWeight() - (previous != null ? previous.getWeight() : 0));
+            return previous;
+        }
+
+        private CacheEntry<V> removeFrom(Map<Long, CacheEntry<V>> map, Long key) {
+            CacheEntry<V> removed = map.remove(key);
+            if (removed != null) {
+                adjust(map, -removed.getWeight());
+            }
+            return removed;
+        }
+
+        private void adjust(Map<Long, CacheEntry<V>> map, long delta) {
+            if (map == window) {
+                windowWeight += delta;
+            } else if (map == probation) {
+                probationWeight += delta;
+            } else {
+                protectedWeight += delta;
+            }
+        }
+
+        private void clear() {
+            removals++;
+            window.clear();
+            probation.clear();
+            protectedEntries.clear();
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+        }
+
+        private int size() {
+            return window.size() + probation.size() + protectedEntries.size();
+        }
+
+        private long weight() {
+            return windowWeight + probationWeight + protectedWeight;
+        }
+
+        private static <V> CacheEntry<V> moveToTail(Map<Long, CacheEntry<V>> map, Long key) {
+            CacheEntry<V> entry = map.remove(key);
+            if (entry != null) {
+                map.put(key, entry);
+            }
+            return entry;
+        }
+
+        private static <V> Map.Entry<Long, CacheEntry<V>> eldest(
+                LinkedHashMap<Long, CacheEntry<V>> map) {
+            Map.Entry<Long, CacheEntry<V>> eldest = map.entrySet().iterator().next();
+            return Map.entry(eldest.getKey(), eldest.getValue());
+        }
+    }
+}
\ No newline at end of file
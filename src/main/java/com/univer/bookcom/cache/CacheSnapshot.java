@@ -0,0 +1,84 @@
+package com.univer.bookcom.cache;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Двоичный снимок горячих ключей областей кэша. Сохраняются только ключи: значения к
+ * следующему запуску могли устареть, поэтому при прогреве они загружаются из БД заново.
+ * Формат: сигнатура, версия, число областей, затем для каждой области имя
+ * (длина + UTF-8) и ключи (число + long).
+ */
+public final class CacheSnapshot {
+    private static final int MAGIC = 0x424B4353;
+    private static final int VERSION = 1;
+
+    private CacheSnapshot() {
+    }
+
+    public static void write(Path path, Map<String, List<Long>> keysByRegion) throws IOException {
+        int capacity = 3 * Integer.BYTES;
+        for (Map.Entry<String, List<Long>> region : keysByRegion.entrySet()) {
+            capacity += Short.BYTES + region.getKey().getBytes(StandardCharsets.UTF_8).length
+                    + Integer.BYTES + region.getValue().size() * Long.BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(keysByRegion.size());
+        for (Map.Entry<String, List<Long>> region : keysByRegion.entrySet()) {
+            byte[] name = region.getKey().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length).put(name).putInt(region.getValue().size());
+            region.getValue().forEach(buffer::putLong);
+        }
+        buffer.flip();
+
+        // Запись во временный файл с переименованием: оборванная запись не испортит снимок.
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Map<String, long[]> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Неизвестный формат снимка кэша: " + path);
+            }
+            int regionCount = buffer.getInt();
+            Map<String, long[]> keysByRegion = new LinkedHashMap<>();
+            for (int i = 0; i < regionCount; i++) {
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(name);
+                int keyCount = buffer.getInt();
+                if (keyCount < 0 || keyCount > buffer.remaining() / Long.BYTES) {
+                    throw new IOException("Снимок кэша повреждён: " + path);
+                }
+                long[] keys = new long[keyCount];
+                buffer.asLongBuffer().get(keys);
+                buffer.position(buffer.position() + keyCount * Long.BYTES);
+                keysByRegion.put(new String(name, StandardCharsets.UTF_8), keys);
+            }
+            return keysByRegion;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Снимок кэша повреждён: " + path, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.univer.bookcom.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики области кэша. {@link LongAdder} не создаёт конкуренции между потоками,
+ * поэтому учёт на горячем пути почти ничего не стоит.
+ */
+public final class CacheStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+    private final Map<RemovalCause, LongAdder> evictions = new EnumMap<>(RemovalCause.class);
+
+    public CacheStats() {
+        for (RemovalCause cause : RemovalCause.values()) {
+            evictions.put(cause, new LongAdder());
+        }
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordLoad(long nanos, boolean success) {
+        (success ? loads : loadFailures).increment();
+        loadTimeNanos.add(nanos);
+    }
+
+    void recordEviction(RemovalCause cause, long count) {
+        evictions.get(cause).add(count);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long requests = hitCount + getMissCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return loadTimeNanos.sum();
+    }
+
+    public long getEvictionCount(RemovalCause cause) {
+        return evictions.get(cause).sum();
+    }
+}
\ No newline at end of file
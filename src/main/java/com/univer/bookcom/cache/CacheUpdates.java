@@ -0,0 +1,187 @@
+package com.univer.bookcom.cache;
+
+import com.univer.bookcom.model.Book;
+import com.univer.bookcom.model.User;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Единая точка изменения кэшей из сервисов. Внутри транзакции изменения копятся в пакете,
+ * который применяется целиком после фиксации и отбрасывается при откате, поэтому кэш
+ * никогда не видит незафиксированного состояния. Вне транзакции изменения применяются сразу.
+ * Изменённые записи только сбрасываются: снимок, построенный внутри транзакции, мог бы лечь
+ * в кэш позже снимка более новой транзакции, а следующее чтение загрузит актуальное значение.
+ */
+@Component
+public class CacheUpdates {
+    private static final Logger log = LoggerFactory.getLogger(CacheUpdates.class);
+
+    private final CacheContainer cacheContainer;
+    private final CacheInvalidationBus invalidationBus;
+
+    public CacheUpdates(CacheContainer cacheContainer, CacheInvalidationBus invalidationBus) {
+        this.cacheContainer = cacheContainer;
+        this.invalidationBus = invalidationBus;
+    }
+
+    public void evictBook(Long id) {
+        record(new CacheEvent(CacheEvent.Type.BOOK_EVICTED, id, null));
+    }
+
+    public void bookCreated(Long id) {
+        cacheContainer.getBookIds().reserve(id);
+        record(new CacheEvent(CacheEvent.Type.BOOK_CREATED, id, null));
+    }
+
+    public void bookDeleted(Long id) {
+        record(new CacheEvent(CacheEvent.Type.BOOK_DELETED, id, null));
+    }
+
+    public void evictUser(Long id) {
+        record(new CacheEvent(CacheEvent.Type.USER_EVICTED, id, null));
+    }
+
+    public void userCreated(Long id) {
+        cacheContainer.getUserIds().reserve(id);
+        record(new CacheEvent(CacheEvent.Type.USER_CREATED, id, null));
+    }
+
+    public void userDeleted(Long id) {
+        record(new CacheEvent(CacheEvent.Type.USER_DELETED, id, null));
+    }
+
+    public void evictComment(Long id) {
+        record(new CacheEvent(CacheEvent.Type.COMMENT_EVICTED, id, null));
+    }
+
+    public void commentCreated(Long id) {
+        cacheContainer.getCommentIds().reserve(id);
+        record(new CacheEvent(CacheEvent.Type.COMMENT_CREATED, id, null));
+    }
+
+    public void commentDeleted(Long id) {
+        record(new CacheEvent(CacheEvent.Type.COMMENT_DELETED, id, null));
+    }
+
+    // Пакетные варианты для массовых удалений: события попадают в один пакет транзакции
+    // и уходят другим узлам общими уведомлениями.
+    public void evictBooks(Collection<Long> ids) {
+        ids.forEach(this::evictBook);
+    }
+
+    public void booksDeleted(Collection<Long> ids) {
+        ids.forEach(this::bookDeleted);
+    }
+
+    public void evictUsers(Collection<Long> ids) {
+        ids.forEach(this::evictUser);
+    }
+
+    public void commentsDeleted(Collection<Long> ids) {
+        ids.forEach(this::commentDeleted);
+    }
+
+    // Теги вычисляются в момент вызова: к фиксации сущность может измениться.
+    public void bookChanged(Book book) {
+        invalidateSearch(BookSearchCache.tagsOf(book));
+    }
+
+    public void authorChanged(User author) {
+        invalidateSearch(BookSearchCache.tagsOfAuthor(author));
+    }
+
+    // Внутри транзакции проверка видит её незафиксированные строки, поэтому результат
+    // запоминается только после фиксации.
+    public void idChecked(ExistenceIndex.Check check) {
+        record(new CacheEvent(check.exists() ? CacheEvent.Type.ID_CONFIRMED
+                : CacheEvent.Type.ID_MISSING, check.id(), check));
+    }
+
+    public void invalidateSearch(Collection<String> tags) {
+        record(new CacheEvent(CacheEvent.Type.SEARCH_INVALIDATED, null, List.copyOf(tags)));
+    }
+
+    private void record(CacheEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(event);
+            invalidationBus.publish(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<CacheEvent> batch = (List<CacheEvent>) TransactionSynchronizationManager
+                .getResource(this);
+        if (batch == null) {
+            batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new Batch(batch));
+        }
+        batch.add(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(CacheEvent event) {
+        Long id = event.id();
+        switch (event.type()) {
+            case BOOK_EVICTED -> cacheContainer.getBookCache().remove(id);
+            case BOOK_CREATED -> cacheContainer.getBookIds().add(id);
+            case BOOK_DELETED -> {
+                cacheContainer.getBookCache().remove(id);
+                cacheContainer.getBookIds().remove(id);
+            }
+            case USER_EVICTED -> cacheContainer.getUserCache().remove(id);
+            case USER_CREATED -> cacheContainer.getUserIds().add(id);
+            case USER_DELETED -> {
+                cacheContainer.getUserCache().remove(id);
+                cacheContainer.getUserIds().remove(id);
+            }
+            case COMMENT_EVICTED -> cacheContainer.getCommentsCache().remove(id);
+            case COMMENT_CREATED -> cacheContainer.getCommentIds().add(id);
+            case COMMENT_DELETED -> {
+                cacheContainer.getCommentsCache().remove(id);
+                cacheContainer.getCommentIds().remove(id);
+            }
+            case SEARCH_INVALIDATED -> cacheContainer.getBookSearchCache()
+                    .invalidate((List<String>) event.value());
+            case SEARCH_CLEARED -> cacheContainer.getBookSearchCache().clear();
+            case ID_CONFIRMED, ID_MISSING -> ((ExistenceIndex.Check) event.value()).remember();
+        }
+    }
+
+    private final class Batch implements TransactionSynchronization {
+        private final List<CacheEvent> events;
+
+        private Batch(List<CacheEvent> events) {
+            this.events = events;
+        }
+
+        // Другим узлам уведомление уходит только после фиксации и отдельным потоком шины,
+        // поэтому ошибка отправки не откатывает уже выполненные изменения.
+        @Override
+        public void afterCommit() {
+            for (CacheEvent event : events) {
+                try {
+                    apply(event);
+                } catch (RuntimeException e) {
+                    log.error("Ошибка применения изменения кэша {}: {}", event, e.getMessage());
+                }
+            }
+            log.debug("Применено изменений кэша после фиксации: {}", events.size());
+            invalidationBus.publish(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheUpdates.this);
+            if (status != STATUS_COMMITTED && !events.isEmpty()) {
+                log.debug("Транзакция не зафиксирована, изменения кэша отброшены: {}",
+                        events.size());
+            }
+        }
+    }
+}
\ No newline at end of file
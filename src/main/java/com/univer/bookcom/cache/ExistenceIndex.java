@@ -0,0 +1,200 @@
+package com.univer.bookcom.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Индекс существования идентификаторов. Bloom-фильтр по всем известным ID позволяет ответить
+ * "точно нет" без обращения к БД, подтверждённые ответы кэшируются в положительной и
+ * отрицательной областях с ограниченным TTL. До загрузки всех ID фильтр не используется,
+ * а при потере связи с шиной инвалидации ему нельзя доверять: ID, созданные другими узлами,
+ * в него не попадают. Результаты проверок запоминаются через {@link Recorder}, чтобы внутри
+ * транзакции они откладывались до её фиксации. Запоздавший результат отбрасывается, если
+ * после начала проверки ID добавлялись или удалялись.
+ */
+public class ExistenceIndex {
+    private static final Logger log = LoggerFactory.getLogger(ExistenceIndex.class);
+
+    private final String name;
+    private final BloomFilter knownIds;
+    private final CacheRegion<Boolean> present;
+    private final CacheRegion<Boolean> missing;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Счётчик добавлений и удалений: по нему запоминание результата проверки узнаёт о гонке.
+    private long generation;
+    private volatile boolean ready;
+    private volatile boolean filterTrusted = true;
+
+    public ExistenceIndex(String name, long expectedInsertions, double falsePositiveRate,
+                          int maxEntries, Duration positiveTtl, Duration negativeTtl) {
+        this.name = name;
+        this.knownIds = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.present = new CacheRegion<>(name + "-present", maxEntries, positiveTtl, null);
+        this.missing = new CacheRegion<>(name + "-missing", maxEntries, negativeTtl, null);
+    }
+
+    public boolean exists(Long id, Predicate<Long> loader, Recorder recorder) {
+        if (filterRejects(id)) {
+            return false;
+        }
+        if (present.get(id) != null) {
+            return true;
+        }
+        if (missing.get(id) != null) {
+            return false;
+        }
+        long checkGeneration = generation();
+        boolean exists = loader.test(id);
+        recorder.checked(new Check(this, id, exists, checkGeneration));
+        return exists;
+    }
+
+    /**
+     * Пакетный вариант {@link #exists}: ID, отсеянные фильтром или уже известные по кэшу,
+     * в БД не проверяются, остальные проверяются одним запросом {@code loader}, который
+     * возвращает существующие из переданных ID.
+     */
+    public Set<Long> existing(Collection<Long> ids,
+                              Function<Collection<Long>, Collection<Long>> loader,
+                              Recorder recorder) {
+        Set<Long> result = new HashSet<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long id : ids) {
+            if (filterRejects(id)) {
+                continue;
+            }
+            if (present.get(id) != null) {
+                result.add(id);
+            } else if (missing.get(id) == null) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return result;
+        }
+        long checkGeneration = generation();
+        Set<Long> found = new HashSet<>(loader.apply(unknown));
+        for (Long id : unknown) {
+            boolean exists = found.contains(id);
+            recorder.checked(new Check(this, id, exists, checkGeneration));
+            if (exists) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void remember(Long id, boolean exists, long checkGeneration) {
+        lock.lock();
+        try {
+            if (checkGeneration != generation) {
+                log.debug("Результат проверки ID {} в индексе {} устарел и не запомнен", id, name);
+                return;
+            }
+            (exists ? present : missing).put(id, new CacheEntry<>(Boolean.TRUE));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void add(Long id) {
+        knownIds.put(id);
+        lock.lock();
+        try {
+            generation++;
+            missing.remove(id);
+            present.put(id, new CacheEntry<>(Boolean.TRUE));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сразу вносит ID в Bloom-фильтр, не дожидаясь фиксации транзакции: лишнее срабатывание
+     * фильтра лишь приводит к проверке в БД, а пропуск нового ID внутри транзакции - к ошибке.
+     */
+    public void reserve(Long id) {
+        knownIds.put(id);
+    }
+
+    public void remove(Long id) {
+        lock.lock();
+        try {
+            generation++;
+            present.remove(id);
+            missing.put(id, new CacheEntry<>(Boolean.TRUE));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            present.clear();
+            missing.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void initialize(Collection<Long> ids) {
+        ids.forEach(knownIds::put);
+        ready = true;
+        log.info("Индекс существования {} загружен: {} ID", name, ids.size());
+    }
+
+    public void setFilterTrusted(boolean filterTrusted) {
+        if (this.filterTrusted != filterTrusted) {
+            log.info("Bloom-фильтр индекса {} {}", name,
+                    filterTrusted ? "снова используется" : "отключён до восстановления шины");
+        }
+        this.filterTrusted = filterTrusted;
+    }
+
+    public List<ManagedCache> getRegions() {
+        return List.of(present, missing);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private boolean filterRejects(Long id) {
+        return ready && filterTrusted && !knownIds.mightContain(id);
+    }
+
+    private long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Результат проверки ID в БД вместе с состоянием индекса на её начало.
+     */
+    public record Check(ExistenceIndex index, Long id, boolean exists, long generation) {
+
+        public void remember() {
+            index.remember(id, exists, generation);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Recorder {
+        void checked(Check check);
+    }
+}
\ No newline at end of file
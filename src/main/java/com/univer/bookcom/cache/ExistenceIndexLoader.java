@@ -0,0 +1,41 @@
+package com.univer.bookcom.cache;
+
+import com.univer.bookcom.repository.BookRepository;
+import com.univer.bookcom.repository.CommentsRepository;
+import com.univer.bookcom.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ExistenceIndexLoader {
+    private static final Logger log = LoggerFactory.getLogger(ExistenceIndexLoader.class);
+
+    private final CacheContainer cacheContainer;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final CommentsRepository commentsRepository;
+
+    public ExistenceIndexLoader(CacheContainer cacheContainer, BookRepository bookRepository,
+                                UserRepository userRepository,
+                                CommentsRepository commentsRepository) {
+        this.cacheContainer = cacheContainer;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.commentsRepository = commentsRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadKnownIds() {
+        try {
+            cacheContainer.getBookIds().initialize(bookRepository.findAllIds());
+            cacheContainer.getUserIds().initialize(userRepository.findAllIds());
+            cacheContainer.getCommentIds().initialize(commentsRepository.findAllIds());
+        } catch (Exception e) {
+            log.error("Не удалось загрузить индексы существования, проверки идут в БД: {}",
+                    e.getMessage());
+        }
+    }
+}
\ No newline at end of file
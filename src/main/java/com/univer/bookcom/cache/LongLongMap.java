@@ -0,0 +1,137 @@
+package com.univer.bookcom.cache;
+
+import java.util.Arrays;
+
+// Хеш-таблица long -> long с открытой адресацией и линейным пробированием: ключи и значения
+// лежат в двух массивах без упаковки в объекты. Значения должны быть неотрицательными,
+// отсутствие ключа обозначается NO_VALUE. Не потокобезопасна.
+final class LongLongMap {
+    static final long NO_VALUE = -1;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    // Ключ, совпадающий с маркером пустой ячейки, хранится отдельно.
+    private long emptyKeyValue = NO_VALUE;
+
+    LongLongMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    long get(long key) {
+        if (key == EMPTY) {
+            return emptyKeyValue;
+        }
+        for (int i = slotOf(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY) {
+                return NO_VALUE;
+            }
+        }
+    }
+
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            if (emptyKeyValue == NO_VALUE) {
+                size++;
+            }
+            emptyKeyValue = value;
+            return;
+        }
+        int i = slotOf(key);
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        values[i] = value;
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            if (++size * 3L > keys.length * 2L) {
+                rehash(keys.length << 1);
+            }
+        }
+    }
+
+    long remove(long key) {
+        if (key == EMPTY) {
+            long previous = emptyKeyValue;
+            if (previous != NO_VALUE) {
+                size--;
+                emptyKeyValue = NO_VALUE;
+            }
+            return previous;
+        }
+        int i = slotOf(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) {
+                return NO_VALUE;
+            }
+            i = (i + 1) & mask;
+        }
+        long previous = values[i];
+        size--;
+        shiftBack(i);
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return 2L * keys.length * Long.BYTES;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        emptyKeyValue = NO_VALUE;
+    }
+
+    // Удаление без надгробий: следующие записи цепочки сдвигаются на освободившееся место,
+    // если их исходная ячейка не лежит между ним и их текущей позицией.
+    private void shiftBack(int hole) {
+        for (int i = (hole + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = slotOf(keys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.univer.bookcom.cache;
+
+/**
+ * Область кэша, доступная для мониторинга и администрирования.
+ */
+public interface ManagedCache {
+
+    String getName();
+
+    CacheStats getStats();
+
+    int size();
+
+    long estimatedBytes();
+
+    void clear();
+
+    boolean evict(String key);
+}
\ No newline at end of file
@@ -0,0 +1,266 @@
+package com.univer.bookcom.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Уровень кэша вне кучи. Записи сериализуются через {@link RecordCodec} и пишутся подряд в
+ * кольцевой журнал из direct-буферов (слябов). При заполнении журнала самый старый сляб
+ * очищается целиком вместе со всеми его записями, поэтому фрагментации и сборки мусора нет.
+ * Индекс ключ - позиция хранится в куче в примитивной хеш-таблице, позиция упакована в один
+ * long. Для каждого сляба ведётся массив записанных в него ключей, чтобы очистка сляба не
+ * просматривала весь индекс. В куче на запись приходится несколько десятков байт массивов
+ * без объектов-обёрток.
+ */
+public class OffHeapTier<V> implements OverflowTier<V>, ManagedCache {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapTier.class);
+    private static final int OFFSET_BITS = 26;
+    private static final int MAX_SLAB_SIZE = 1 << OFFSET_BITS;
+    private static final int MAX_SLABS = 1 << (Long.SIZE - 2 * OFFSET_BITS);
+    private static final long OFFSET_MASK = MAX_SLAB_SIZE - 1;
+    private static final int HEADER_BYTES = Long.BYTES;
+    private static final int INITIAL_SLAB_KEYS = 64;
+
+    private final String name;
+    private final RecordCodec<V> codec;
+    private final int slabSize;
+    private final ByteBuffer[] slabs;
+    private final LongLongMap index = new LongLongMap();
+    private final long[][] slabKeys;
+    private final int[] slabKeyCounts;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CacheStats stats = new CacheStats();
+    private int currentSlab;
+    private int writeOffset;
+
+    public OffHeapTier(String name, RecordCodec<V> codec, int slabSize, int slabCount) {
+        if (slabSize <= HEADER_BYTES || slabSize >= MAX_SLAB_SIZE) {
+            throw new IllegalArgumentException("Недопустимый размер сляба: " + slabSize);
+        }
+        if (slabCount < 2 || slabCount > MAX_SLABS) {
+            throw new IllegalArgumentException("Недопустимое количество слябов: " + slabCount);
+        }
+        this.name = name;
+        this.codec = codec;
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabKeys = new long[slabCount][INITIAL_SLAB_KEYS];
+        this.slabKeyCounts = new int[slabCount];
+    }
+
+    @Override
+    public void store(Long key, CacheEntry<V> entry) {
+        byte[] record = encode(entry);
+        if (record.length > slabSize) {
+            log.debug("Запись {} не помещается в сляб кэша {}: {} байт", key, name, record.length);
+            return;
+        }
+        lock.lock();
+        try {
+            if (writeOffset + record.length > slabSize) {
+                advanceSlab();
+            }
+            ByteBuffer slab = slab(currentSlab);
+            slab.put(writeOffset, record);
+            index.put(key, pack(currentSlab, writeOffset, record.length));
+            addSlabKey(key);
+            writeOffset += record.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CacheEntry<V> peek(Long key) {
+        byte[] record = read(key, false);
+        return record != null ? decode(record) : null;
+    }
+
+    @Override
+    public CacheEntry<V> take(Long key) {
+        byte[] record = read(key, true);
+        return record != null ? decode(record) : null;
+    }
+
+    @Override
+    public void invalidate(Long key) {
+        lock.lock();
+        try {
+            if (index.remove(key) != LongLongMap.NO_VALUE) {
+                stats.recordEviction(RemovalCause.EXPLICIT, 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean evict(String key) {
+        lock.lock();
+        try {
+            boolean removed = index.remove(Long.parseLong(key)) != LongLongMap.NO_VALUE;
+            if (removed) {
+                stats.recordEviction(RemovalCause.EXPLICIT, 1);
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            stats.recordEviction(RemovalCause.EXPLICIT, index.size());
+            index.clear();
+            Arrays.fill(slabKeyCounts, 0);
+            currentSlab = 0;
+            writeOffset = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            long allocated = index.sizeInBytes();
+            for (long[] keys : slabKeys) {
+                allocated += (long) keys.length * Long.BYTES;
+            }
+            for (ByteBuffer slab : slabs) {
+                if (slab != null) {
+                    allocated += slab.capacity();
+                }
+            }
+            return allocated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] read(Long key, boolean remove) {
+        lock.lock();
+        try {
+            long location = remove ? index.remove(key) : index.get(key);
+            if (location == LongLongMap.NO_VALUE) {
+                stats.recordMiss();
+                return null;
+            }
+            stats.recordHit();
+            byte[] record = new byte[lengthOf(location)];
+            slabs[slabOf(location)].get(offsetOf(location), record);
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Переход к следующему слябу кольца: удаляются записи, ещё указывающие на него. Ключ,
+    // перезаписанный позже в другой сляб или уже удалённый, остаётся в индексе как есть.
+    private void advanceSlab() {
+        currentSlab = (currentSlab + 1) % slabs.length;
+        writeOffset = 0;
+        long[] keys = slabKeys[currentSlab];
+        int evicted = 0;
+        for (int i = 0; i < slabKeyCounts[currentSlab]; i++) {
+            long location = index.get(keys[i]);
+            if (location != LongLongMap.NO_VALUE && slabOf(location) == currentSlab) {
+                index.remove(keys[i]);
+                evicted++;
+            }
+        }
+        slabKeyCounts[currentSlab] = 0;
+        if (evicted > 0) {
+            stats.recordEviction(RemovalCause.SIZE, evicted);
+            log.debug("Сляб {} кэша {} переиспользован, вытеснено записей: {}",
+                    currentSlab, name, evicted);
+        }
+    }
+
+    private void addSlabKey(long key) {
+        int count = slabKeyCounts[currentSlab];
+        if (count == slabKeys[currentSlab].length) {
+            slabKeys[currentSlab] = Arrays.copyOf(slabKeys[currentSlab], count << 1);
+        }
+        slabKeys[currentSlab][count] = key;
+        slabKeyCounts[currentSlab] = count + 1;
+    }
+
+    private ByteBuffer slab(int number) {
+        if (slabs[number] == null) {
+            slabs[number] = ByteBuffer.allocateDirect(slabSize);
+        }
+        return slabs[number];
+    }
+
+    private byte[] encode(CacheEntry<V> entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(entry.getTimestamp());
+            codec.write(entry.getValue(), out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CacheEntry<V> decode(byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            long timestamp = in.readLong();
+            return new CacheEntry<>(codec.read(in), timestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long pack(int slab, int offset, int length) {
+        return ((long) slab << (2 * OFFSET_BITS)) | ((long) offset << OFFSET_BITS) | length;
+    }
+
+    private static int slabOf(long location) {
+        return (int) (location >>> (2 * OFFSET_BITS));
+    }
+
+    private static int offsetOf(long location) {
+        return (int) ((location >>> OFFSET_BITS) & OFFSET_MASK);
+    }
+
+    private static int lengthOf(long location) {
+        return (int) (location & OFFSET_MASK);
+    }
+}
\ No newline at end of file
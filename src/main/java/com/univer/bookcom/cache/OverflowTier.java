@@ -0,0 +1,24 @@
+package com.univer.bookcom.cache;
+
+/**
+ * Второй уровень области кэша: принимает записи, вытесненные из памяти кучи по размеру,
+ * и возвращает их при повторном обращении.
+ */
+public interface OverflowTier<V> {
+
+    void store(Long key, CacheEntry<V> entry);
+
+    /**
+     * Возвращает запись, не удаляя её из уровня.
+     */
+    CacheEntry<V> peek(Long key);
+
+    /**
+     * Возвращает запись и удаляет её из уровня.
+     */
+    CacheEntry<V> take(Long key);
+
+    void invalidate(Long key);
+
+    void clear();
+}
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.univer.bookcom.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Кэш результатов поисковых запросов. Каждый результат помечается тегом своего запроса и
+ * тегами ID всех входящих в него элементов, поэтому изменение элемента сбрасывает только те
+ * запросы, которые его содержали, а изменение ключевых полей - запросы по старому и новому
+ * значению.
+ */
+public class QueryCache<T> implements ManagedCache {
+    private static final Logger log = LoggerFactory.getLogger(QueryCache.class);
+    // Узел LinkedHashMap, запись и список результата без учёта самих элементов.
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long TAG_OVERHEAD_BYTES = 64;
+
+    private final String name;
+    private final int maxEntries;
+    private final long expireAfterWriteMillis;
+    private final Function<T, Long> idOf;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private final CacheStats stats = new CacheStats();
+    private long generation;
+
+    public QueryCache(String name, int maxEntries, Duration expireAfterWrite,
+                      Function<T, Long> idOf) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.expireAfterWriteMillis = expireAfterWrite != null ? expireAfterWrite.toMillis() : 0;
+        this.idOf = idOf;
+    }
+
+    public static String idTag(Long id) {
+        return "id:" + id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public List<T> get(String key, Supplier<List<T>> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry<T> entry = entries.get(key);
+            if (entry != null && !isExpired(entry, System.currentTimeMillis())) {
+                log.debug("Результат запроса {} найден в кэше {}", key, name);
+                stats.recordHit();
+                return entry.value();
+            }
+            if (entry != null) {
+                removeEntry(key);
+                stats.recordEviction(RemovalCause.EXPIRED, 1);
+            }
+            stats.recordMiss();
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        List<T> value = load(loader);
+        Set<String> tags = new HashSet<>();
+        tags.add(key);
+        value.forEach(item -> tags.add(idTag(idOf.apply(item))));
+
+        lock.lock();
+        try {
+            // Если за время загрузки что-то инвалидировалось, результат мог устареть.
+            if (loadGeneration == generation) {
+                removeEntry(key);
+                entries.put(key, new Entry<>(value, tags, System.currentTimeMillis()));
+                tags.forEach(tag ->
+                        keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key));
+                evictOverflow();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    public void invalidate(Collection<String> tags) {
+        lock.lock();
+        try {
+            generation++;
+            int removed = 0;
+            for (String tag : tags) {
+                Set<String> keys = keysByTag.get(tag);
+                if (keys == null) {
+                    continue;
+                }
+                for (String key : new HashSet<>(keys)) {
+                    if (removeEntry(key)) {
+                        removed++;
+                    }
+                }
+            }
+            stats.recordEviction(RemovalCause.EXPLICIT, removed);
+            if (removed > 0) {
+                log.debug("Сброшено {} результатов кэша {} по тегам {}", removed, name, tags);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean evict(String key) {
+        lock.lock();
+        try {
+            generation++;
+            boolean removed = removeEntry(key);
+            if (removed) {
+                stats.recordEviction(RemovalCause.EXPLICIT, 1);
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            long bytes = 0;
+            for (Entry<T> entry : entries.values()) {
+                bytes += ENTRY_OVERHEAD_BYTES + (long) entry.value().size() * Long.BYTES
+                        + entry.tags().size() * TAG_OVERHEAD_BYTES;
+            }
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            generation++;
+            stats.recordEviction(RemovalCause.EXPLICIT, entries.size());
+            entries.clear();
+            keysByTag.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<T> load(Supplier<List<T>> loader) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            List<T> value = List.copyOf(loader.get());
+            success = true;
+            return value;
+        } finally {
+            stats.recordLoad(System.nanoTime() - start, success);
+        }
+    }
+
+    private boolean removeEntry(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        for (String tag : entry.tags()) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByTag.remove(tag);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void evictOverflow() {
+        while (entries.size() > maxEntries) {
+            removeEntry(entries.keySet().iterator().next());
+            stats.recordEviction(RemovalCause.SIZE, 1);
+        }
+    }
+
+    private boolean isExpired(Entry<T> entry, long now) {
+        return expireAfterWriteMillis > 0 && now - entry.createdAt() >= expireAfterWriteMillis;
+    }
+
+    private record Entry<T>(List<T> value, Set<String> tags, long createdAt) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.univer.bookcom.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Компактная двоичная сериализация значений для хранения вне кучи.
+ */
+public interface RecordCodec<V> {
+
+    void write(V value, DataOutput out) throws IOException;
+
+    V read(DataInput in) throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.univer.bookcom.cache;
+
+public enum RemovalCause {
+    SIZE,
+    EXPIRED,
+    EXPLICIT
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.univer.bookcom.cache;
+
+/**
+ * Оценка занимаемой значением памяти в байтах для областей кэша с ограничением по объёму.
+ */
+@FunctionalInterface
+public interface Weigher<V> {
+
+    int weigh(V value);
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.univer.bookcom.cache;
+
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.model.dto.response.CommentsResponseDto;
+import com.univer.bookcom.model.dto.response.UserResponseDto;
+import java.util.List;
+
+/**
+ * Оценки размера DTO в куче. Точность не нужна: важно, чтобы пользователь с тысячами
+ * комментариев весил пропорционально больше нового. Строки считаются в UTF-16, так как
+ * данные в основном кириллические.
+ */
+public final class Weighers {
+    private static final int ENTRY_OVERHEAD = 112;
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int BOXED_LONG = 16;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int LIST_OVERHEAD = 40;
+    private static final int LOCAL_DATE_TIME = 72;
+
+    private Weighers() {
+    }
+
+    public static int book(BookResponseDto book) {
+        return ENTRY_OVERHEAD + OBJECT_HEADER + 7 * REFERENCE + 3 * BOXED_LONG
+                + string(book.getTitle()) + string(book.getDescription())
+                + string(book.getBookStatus()) + strings(book.getAuthorNames());
+    }
+
+    public static int user(UserResponseDto user) {
+        return ENTRY_OVERHEAD + OBJECT_HEADER + 5 * REFERENCE + BOXED_LONG
+                + string(user.getName()) + string(user.getEmail())
+                + strings(user.getBookTitles()) + strings(user.getCommentTexts());
+    }
+
+    public static int comment(CommentsResponseDto comment) {
+        return ENTRY_OVERHEAD + OBJECT_HEADER + 6 * REFERENCE + 2 * BOXED_LONG + LOCAL_DATE_TIME
+                + string(comment.getText()) + string(comment.getUserName())
+                + string(comment.getBookTitle());
+    }
+
+    private static int string(String value) {
+        return value != null ? STRING_OVERHEAD + 2 * value.length() : 0;
+    }
+
+    private static int strings(List<String> values) {
+        if (values == null) {
+            return 0;
+        }
+        int weight = LIST_OVERHEAD + values.size() * REFERENCE;
+        for (String value : values) {
+            weight += string(value);
+        }
+        return weight;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.univer.bookcom.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+    private boolean logMutations = false;
+
+    private Region books = new Region();
+
+    private Region users = new Region();
+
+    private Region comments = new Region();
+
+    private Region bookSearch = new Region();
+
+    private Existence existence = new Existence();
+
+    private Bus bus = new Bus();
+
+    private Snapshot snapshot = new Snapshot();
+
+    private Refresh refresh = new Refresh();
+
+    private OffHeap bookOffHeap = new OffHeap();
+
+    @Getter
+    @Setter
+    public static class Region {
+
+        private int maxEntries = 1000;
+
+        private DataSize maxWeight;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        private Duration refreshAhead;
+    }
+
+    @Getter
+    @Setter
+    public static class Refresh {
+
+        private int threads = 2;
+
+        private int queueCapacity = 500;
+
+        private int minFrequency = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class OffHeap {
+
+        private boolean enabled = false;
+
+        private DataSize slabSize = DataSize.ofMegabytes(16);
+
+        private int slabCount = 16;
+
+        private int promoteFrequency = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Existence {
+
+        private long expectedInsertions = 1_000_000;
+
+        private double falsePositiveRate = 0.01;
+
+        private int maxEntries = 10_000;
+
+        private Duration positiveTtl = Duration.ofMinutes(10);
+
+        private Duration negativeTtl = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Bus {
+
+        private boolean enabled = false;
+
+        private String channel = "bookcom_cache";
+
+        private Duration pollTimeout = Duration.ofSeconds(1);
+
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        private int publishAttempts = 3;
+
+        private Duration publishRetryDelay = Duration.ofMillis(500);
+
+        private int publishQueueCapacity = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        private boolean enabled = true;
+
+        private String path = "cache-snapshot.bin";
+
+        private int maxKeys = 2000;
+
+        private int warmThreads = 4;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.univer.bookcom.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "purge")
+public class PurgeProperties {
+
+    private boolean enabled = true;
+
+    private int entitiesPerRun = 20;
+
+    private int chunkSize = 500;
+
+    private Duration chunkPause = Duration.ofMillis(50);
+}
\ No newline at end of file
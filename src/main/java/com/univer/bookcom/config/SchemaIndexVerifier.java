@@ -0,0 +1,86 @@
+package com.univer.bookcom.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сверяет индексы, объявленные в сущностях и в {@link SchemaInitializer}, с живой схемой.
+ * ddl-auto при ошибке создания индекса (например, уникального на данных с дубликатами)
+ * только пишет предупреждение, а прерванный CONCURRENTLY оставляет невалидный индекс,
+ * поэтому отсутствующие и невалидные индексы сообщаются отдельно. Проверку запускает
+ * SchemaInitializer после построения своих индексов.
+ */
+@Component
+public class SchemaIndexVerifier {
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+    private static final String VALID_INDEXES = "SELECT c.relname FROM pg_index i "
+            + "JOIN pg_class c ON c.oid = i.indexrelid "
+            + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+            + "WHERE n.nspname = current_schema() AND i.indisvalid";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SchemaIndexVerifier(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void verifyIndexes() {
+        Set<String> declared = declaredIndexes();
+        Set<String> existing;
+        try {
+            existing = new HashSet<>(jdbcTemplate.queryForList(VALID_INDEXES, String.class));
+        } catch (DataAccessException e) {
+            log.warn("Не удалось проверить индексы схемы: {}", e.getMessage());
+            return;
+        }
+        List<String> missing = declared.stream()
+                .filter(name -> !existing.contains(name))
+                .toList();
+        if (missing.isEmpty()) {
+            log.info("Все объявленные индексы схемы на месте: {}", declared.size());
+        } else {
+            log.warn("В схеме отсутствуют или невалидны индексы {}, запросы по ним выполняются "
+                    + "полным сканированием таблиц", missing);
+        }
+    }
+
+    private Set<String> declaredIndexes() {
+        Set<String> names = new TreeSet<>(SchemaInitializer.indexNames());
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            Table table = type.getAnnotation(Table.class);
+            if (table != null) {
+                addNames(names, table.indexes());
+            }
+            for (Field field : type.getDeclaredFields()) {
+                JoinTable joinTable = field.getAnnotation(JoinTable.class);
+                if (joinTable != null) {
+                    addNames(names, joinTable.indexes());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void addNames(Set<String> names, Index[] indexes) {
+        for (Index index : indexes) {
+            names.add(index.name());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.univer.bookcom.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+/**
+ * Объекты схемы, которые нельзя описать аннотациями JPA и которые ddl-auto не создаёт.
+ * При запуске выполняются только быстрые операторы без перезаписи таблиц. Индексы
+ * строятся в фоне через {@code CREATE INDEX CONCURRENTLY}, не блокируя запись, и только
+ * одним узлом: остальные пропускают построение, пока держится advisory-блокировка.
+ */
+@Component
+public class SchemaInitializer {
+    private static final Logger log = LoggerFactory.getLogger(SchemaInitializer.class);
+    private static final long SCHEMA_LOCK_ID = 7_402_118_305L;
+    private static final int BACKFILL_CHUNK_SIZE = 1000;
+
+    // Полнотекстовый вектор книги, название весит больше описания. Столбец добавляется
+    // без значения по умолчанию, поэтому таблица не перезаписывается; новые и изменённые
+    // строки заполняет триггер, существующие - фоновое заполнение порциями.
+    private static final List<String> PREPARE_STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "ALTER TABLE books ADD COLUMN IF NOT EXISTS search_vector tsvector",
+            "CREATE OR REPLACE FUNCTION books_search_vector(title text, description text) "
+                    + "RETURNS tsvector LANGUAGE sql IMMUTABLE AS $$ SELECT "
+                    + "setweight(to_tsvector('russian', coalesce(title, '')), 'A') || "
+                    + "setweight(to_tsvector('russian', coalesce(description, '')), 'B') $$",
+            "CREATE OR REPLACE FUNCTION books_search_vector_trigger() RETURNS trigger "
+                    + "LANGUAGE plpgsql AS $$ BEGIN "
+                    + "NEW.search_vector := books_search_vector(NEW.title, NEW.description); "
+                    + "RETURN NEW; END $$",
+            "DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM pg_trigger "
+                    + "WHERE tgname = 'books_search_vector_update' "
+                    + "AND tgrelid = 'books'::regclass) THEN "
+                    + "CREATE TRIGGER books_search_vector_update "
+                    + "BEFORE INSERT OR UPDATE OF title, description ON books FOR EACH ROW "
+                    + "EXECUTE FUNCTION books_search_vector_trigger(); END IF; END $$"
+    );
+    private static final String BACKFILL_SEARCH_VECTOR = "UPDATE books "
+            + "SET search_vector = books_search_vector(title, description) WHERE id IN "
+            + "(SELECT id FROM books WHERE id > ? AND search_vector IS NULL ORDER BY id LIMIT ?) "
+            + "RETURNING id";
+
+    private static final String EMAIL_INDEX = "idx_users_email_active";
+    private static final String LEGACY_EMAIL_CONSTRAINT = "idx_users_email";
+
+    private static final List<SchemaIndex> INDEXES = List.of(
+            // Email уникален только среди неудалённых пользователей: помеченный удалённым
+            // пользователь не занимает email до физической очистки.
+            new SchemaIndex(EMAIL_INDEX, true, "ON users (email) WHERE deleted = false"),
+            // Частичные индексы очереди очистки: удалённых строк мало, поэтому PurgeService
+            // находит их без сканирования всей таблицы.
+            new SchemaIndex("idx_users_purge_queue", false, "ON users (id) WHERE deleted"),
+            new SchemaIndex("idx_books_purge_queue", false, "ON books (id) WHERE deleted"),
+            // Триграммный индекс для поиска по подстроке имени пользователя.
+            new SchemaIndex("idx_users_name_trgm", false, "ON users USING gin (name gin_trgm_ops)"),
+            new SchemaIndex("idx_books_search_vector", false, "ON books USING gin (search_vector)")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaIndexVerifier schemaIndexVerifier;
+
+    // Зависимость от EntityManagerFactory гарантирует, что ddl-auto к этому моменту
+    // создал таблицы, которые изменяют операторы подготовки.
+    public SchemaInitializer(JdbcTemplate jdbcTemplate, SchemaIndexVerifier schemaIndexVerifier,
+                             EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaIndexVerifier = schemaIndexVerifier;
+    }
+
+    public static List<String> indexNames() {
+        return INDEXES.stream().map(SchemaIndex::name).toList();
+    }
+
+    @PostConstruct
+    public void prepareSchema() {
+        PREPARE_STATEMENTS.forEach(jdbcTemplate::execute);
+        log.info("Дополнительные объекты схемы проверены: {}", PREPARE_STATEMENTS.size());
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                buildIndexes(connection);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.error("Не удалось построить индексы схемы: {}", e.getMessage());
+        } finally {
+            schemaIndexVerifier.verifyIndexes();
+        }
+    }
+
+    // CONCURRENTLY не выполняется внутри транзакции, поэтому соединение работает
+    // в режиме автофиксации. Advisory-блокировка сессионная и снимается явно.
+    private void buildIndexes(Connection connection) throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            if (!tryLock(statement)) {
+                log.info("Индексы схемы строит другой узел, построение пропущено");
+                return;
+            }
+            try {
+                backfillSearchVectors(connection);
+                for (SchemaIndex index : INDEXES) {
+                    buildIndex(connection, statement, index);
+                }
+                dropLegacyEmailConstraint(connection, statement);
+            } finally {
+                statement.execute("SELECT pg_advisory_unlock(" + SCHEMA_LOCK_ID + ")");
+            }
+        }
+    }
+
+    // Прерванное построение оставляет невалидный индекс, который IF NOT EXISTS
+    // пропустил бы навсегда, поэтому такой индекс сначала удаляется.
+    private void buildIndex(Connection connection, Statement statement, SchemaIndex index) {
+        try {
+            if (indexExists(connection, index.name(), false)) {
+                log.warn("Индекс {} недостроен и будет построен заново", index.name());
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.name());
+            }
+            statement.execute("CREATE " + (index.unique() ? "UNIQUE " : "")
+                    + "INDEX CONCURRENTLY IF NOT EXISTS " + index.name() + " "
+                    + index.definition());
+        } catch (SQLException e) {
+            log.error("Не удалось построить индекс {}: {}", index.name(), e.getMessage());
+        }
+    }
+
+    // Проход по первичному ключу: каждая порция - отдельная короткая транзакция.
+    private void backfillSearchVectors(Connection connection) throws SQLException {
+        long after = 0;
+        long filled = 0;
+        try (PreparedStatement update = connection.prepareStatement(BACKFILL_SEARCH_VECTOR)) {
+            while (true) {
+                update.setLong(1, after);
+                update.setInt(2, BACKFILL_CHUNK_SIZE);
+                int rows = 0;
+                try (ResultSet rs = update.executeQuery()) {
+                    while (rs.next()) {
+                        after = Math.max(after, rs.getLong(1));
+                        rows++;
+                    }
+                }
+                if (rows == 0) {
+                    break;
+                }
+                filled += rows;
+            }
+        }
+        if (filled > 0) {
+            log.info("Заполнены поисковые векторы книг: {}", filled);
+        }
+    }
+
+    // Прежнее ограничение уникальности по всем строкам снимается только после того,
+    // как частичный индекс построен и валиден.
+    private void dropLegacyEmailConstraint(Connection connection, Statement statement)
+            throws SQLException {
+        if (indexExists(connection, EMAIL_INDEX, true)) {
+            statement.execute("ALTER TABLE users DROP CONSTRAINT IF EXISTS "
+                    + LEGACY_EMAIL_CONSTRAINT);
+        }
+    }
+
+    private static boolean tryLock(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(
+                "SELECT pg_try_advisory_lock(" + SCHEMA_LOCK_ID + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private static boolean indexExists(Connection connection, String name, boolean valid)
+            throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+                        + "WHERE c.relname = ? AND i.indisvalid = ?")) {
+            query.setString(1, name);
+            query.setBoolean(2, valid);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private record SchemaIndex(String name, boolean unique, String definition) {
+    }
+}
\ No newline at end of file
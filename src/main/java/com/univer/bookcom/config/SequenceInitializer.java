@@ -0,0 +1,48 @@
+package com.univer.bookcom.config;
+
+import com.univer.bookcom.model.Book;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сдвигает последовательность ID книг за максимальный существующий ID. Нужна при переходе
+ * с IDENTITY: ddl-auto создаёт последовательность с 1, а таблица уже заполнена.
+ * Зависимость от EntityManagerFactory гарантирует, что схема к этому моменту обновлена.
+ */
+@Component
+public class SequenceInitializer {
+    private static final Logger log = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceInitializer(JdbcTemplate jdbcTemplate,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        align(Book.ID_SEQUENCE, "books", Book.ID_ALLOCATION_SIZE);
+    }
+
+    // Hibernate выдаёт ID из диапазона (nextval - allocationSize, nextval], поэтому
+    // следующий nextval должен быть не меньше max(id) + allocationSize. Последовательность
+    // только сдвигается вперёд, так что запуск рядом с работающими узлами безопасен.
+    private void align(String sequence, String table, int allocationSize) {
+        List<Long> moved = jdbcTemplate.queryForList(
+                "SELECT setval(?::regclass, m.max_id + ?, false) "
+                        + "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") m, "
+                        + sequence + " s "
+                        + "WHERE CASE WHEN s.is_called THEN s.last_value + ? "
+                        + "ELSE s.last_value END < m.max_id + ?",
+                Long.class, sequence, allocationSize, allocationSize, allocationSize);
+        if (!moved.isEmpty()) {
+            log.info("Последовательность {} сдвинута к значению {}", sequence, moved.get(0));
+        }
+    }
+}
\ No newline at end of file
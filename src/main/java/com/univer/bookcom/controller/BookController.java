@@ -6,6 +6,7 @@ import com.univer.bookcom.exception.InvalidStatusException;
 import com.univer.bookcom.exception.UserNotFoundException;
 import com.univer.bookcom.model.dto.request.BookRequestDto;
 import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.model.dto.response.CursorPageDto;
 import com.univer.bookcom.service.BookService;
 import com.univer.bookcom.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,8 +15,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,18 +55,26 @@ public class BookController {
         this.userService = userService;
     }
 
-    @Operation(summary = "Получить все книги",
+    @Operation(summary = "Получить книги постранично",
+            description = "Книги упорядочены по ID; для следующей страницы передайте "
+                    + "nextCursor из ответа в параметре after",
             responses = {
-                @ApiResponse(responseCode = "200", description = "Список книг получен",
-                            content = @Content(schema = @Schema(implementation = List.class))),
+                @ApiResponse(responseCode = "200", description = "Страница книг получена",
+                            content = @Content(schema =
+                            @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректные параметры страницы",
+                            content = @Content(schema = @Schema(
+                                    example = "{\"ошибка\":\"Некорректные данные\"}"))),
                 @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
                             content = @Content(schema = @Schema(
                                     example = "{\"ошибка\":\"Внутренняя ошибка сервера\"}")))
             })
     @GetMapping
-    public ResponseEntity<List<BookResponseDto>> getAllBooks() {
-        log.debug("Запрос всех книг");
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<CursorPageDto<BookResponseDto>> getAllBooks(
+            @RequestParam(defaultValue = "0") @PositiveOrZero long after,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
+        log.debug("Запрос страницы книг после ID {}", after);
+        return ResponseEntity.ok(bookService.getAllBooks(after, limit));
     }
 
     @Operation(summary = "Получить книгу по ID",
@@ -178,6 +190,30 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
 
+    @Operation(summary = "Полнотекстовый поиск книг",
+            description = "Ищет слова запроса в названии и описании, более релевантные книги "
+                    + "первыми; для следующей страницы передайте nextCursor из ответа "
+                    + "в параметре offset",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Страница результатов получена",
+                            content = @Content(schema =
+                            @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректные параметры поиска",
+                            content = @Content(schema = @Schema(
+                                    example = "{\"ошибка\":\"Некорректные данные\"}"))),
+                @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
+                            content = @Content(schema = @Schema(
+                                    example = "{\"ошибка\":\"Внутренняя ошибка сервера\"}")))
+            })
+    @GetMapping("/search/text")
+    public ResponseEntity<CursorPageDto<BookResponseDto>> searchBooksByText(
+            @RequestParam @NotBlank String query,
+            @RequestParam(defaultValue = "0") @PositiveOrZero @Max(10000) int offset,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        log.debug("Выполняется полнотекстовый поиск книг");
+        return ResponseEntity.ok(bookService.searchBooksByText(query, offset, limit));
+    }
+
     @Operation(summary = "Поиск книг по автору",
             responses = {
                 @ApiResponse(responseCode = "200", description = "Книги найдены",
@@ -292,7 +328,7 @@ public class BookController {
             throw new BookNotFoundException(BOOK_NOT_FOUND_MSG);
         }
 
-        if (!userService.getUserById(authorId).isPresent()) {
+        if (!userService.existsById(authorId)) {
             log.error("Автор с ID {} не найден", authorId);
             throw new UserNotFoundException("Автор не найден");
         }
@@ -325,7 +361,7 @@ public class BookController {
             throw new BookNotFoundException(BOOK_NOT_FOUND_MSG);
         }
 
-        if (!userService.getUserById(authorId).isPresent()) {
+        if (!userService.existsById(authorId)) {
             log.error("Автор с ID {} не найден", authorId);
             throw new UserNotFoundException("Автор не найден");
         }
@@ -0,0 +1,89 @@
+package com.univer.bookcom.controller;
+
+import com.univer.bookcom.model.dto.response.CacheStatsResponseDto;
+import com.univer.bookcom.service.CacheAdminService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache")
+@Tag(name = "Управление кэшем", description = "API для мониторинга и администрирования кэша")
+public class CacheController {
+
+    private final CacheAdminService cacheAdminService;
+
+    public CacheController(CacheAdminService cacheAdminService) {
+        this.cacheAdminService = cacheAdminService;
+    }
+
+    @Operation(
+            summary = "Получить статистику всех областей кэша",
+            description = "Возвращает счётчики попаданий, промахов, загрузок и вытеснений,"
+                    + " размер и оценку памяти для каждой области",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Успешный ответ",
+                            content = @Content(schema = @Schema(
+                                    implementation = CacheStatsResponseDto.class)))
+            }
+    )
+    @GetMapping
+    public List<CacheStatsResponseDto> getAllStats() {
+        return cacheAdminService.getAllStats();
+    }
+
+    @Operation(
+            summary = "Получить статистику области кэша",
+            description = "Возвращает статистику области кэша по её имени",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Успешный ответ",
+                            content = @Content(schema = @Schema(
+                                    implementation = CacheStatsResponseDto.class))),
+                @ApiResponse(responseCode = "404", description = "Область кэша не найдена")
+            }
+    )
+    @GetMapping("/{region}")
+    public CacheStatsResponseDto getStats(@PathVariable String region) {
+        return cacheAdminService.getStats(region);
+    }
+
+    @Operation(
+            summary = "Очистить область кэша",
+            description = "Удаляет все записи из области кэша",
+            responses = {
+                @ApiResponse(responseCode = "204", description = "Область кэша очищена"),
+                @ApiResponse(responseCode = "404", description = "Область кэша не найдена")
+            }
+    )
+    @DeleteMapping("/{region}")
+    public ResponseEntity<Void> clearRegion(@PathVariable String region) {
+        cacheAdminService.clearRegion(region);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+            summary = "Удалить ключ из области кэша",
+            description = "Удаляет одну запись из области кэша по ключу",
+            responses = {
+                @ApiResponse(responseCode = "204", description = "Запись удалена"),
+                @ApiResponse(responseCode = "400", description = "Некорректный ключ"),
+                @ApiResponse(responseCode = "404",
+                        description = "Область кэша или запись не найдены")
+            }
+    )
+    @DeleteMapping("/{region}/keys/{key}")
+    public ResponseEntity<Void> evictKey(@PathVariable String region, @PathVariable String key) {
+        return cacheAdminService.evictKey(region, key)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
\ No newline at end of file
@@ -3,16 +3,17 @@ package com.univer.bookcom.controller;
 import com.univer.bookcom.exception.CommentNotFoundException;
 import com.univer.bookcom.model.dto.request.CommentsRequestDto;
 import com.univer.bookcom.model.dto.response.CommentsResponseDto;
+import com.univer.bookcom.model.dto.response.CursorPageDto;
 import com.univer.bookcom.service.CommentsService;
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -25,6 +26,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -66,10 +68,15 @@ public class CommentsController {
     }
 
     @Operation(summary = "Получить комментарии по книге",
+            description = "Комментарии от новых к старым; для следующей страницы передайте "
+                    + "nextCursor из ответа в параметре before",
             responses = {
                 @ApiResponse(responseCode = "200", description = "Комментарии найдены",
-                            content = @Content(array = @ArraySchema(
-                                    schema = @Schema(implementation = CommentsResponseDto.class)))),
+                            content = @Content(schema =
+                            @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректный курсор страницы",
+                            content = @Content(schema = @Schema(
+                                    example = "{\"ошибка\":\"Некорректный курсор страницы\"}"))),
                 @ApiResponse(responseCode = "404", description = "Комментарии не найдены",
                             content = @Content(schema = @Schema(
                                     example = "{\"ошибка\":\"Комментарии не найдены\"}"))),
@@ -78,24 +85,32 @@ public class CommentsController {
                                     example = "{\"ошибка\":\"Внутренняя ошибка сервера\"}")))
             })
     @GetMapping("/book/{bookId}")
-    public ResponseEntity<List<CommentsResponseDto>> getCommentsByBookId(
+    public ResponseEntity<CursorPageDto<CommentsResponseDto>> getCommentsByBookId(
             @PathVariable @Positive(message = "ID книги должен быть положительным числом")
-            Long bookId) {
+            Long bookId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
         log.debug("Запрос комментариев для книги ID: {}", bookId);
-        List<CommentsResponseDto> comments = commentsService.getCommentsByBookIdDto(bookId);
-        if (comments.isEmpty()) {
+        CursorPageDto<CommentsResponseDto> comments =
+                commentsService.getCommentsByBookIdDto(bookId, before, limit);
+        if (comments.getItems().isEmpty() && before == null) {
             log.warn("Комментарии для книги ID: {} не найдены", bookId);
             throw new CommentNotFoundException("Комментарии не найдены");
         }
-        log.info("Найдено {} комментариев для книги ID: {}", comments.size(), bookId);
+        log.info("Найдено {} комментариев для книги ID: {}", comments.getItems().size(), bookId);
         return ResponseEntity.ok(comments);
     }
 
     @Operation(summary = "Получить комментарии по пользователю",
+            description = "Комментарии от новых к старым; для следующей страницы передайте "
+                    + "nextCursor из ответа в параметре before",
             responses = {
                 @ApiResponse(responseCode = "200", description = "Комментарии найдены",
-                            content = @Content(array = @ArraySchema(
-                                    schema = @Schema(implementation = CommentsResponseDto.class)))),
+                            content = @Content(schema =
+                            @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректный курсор страницы",
+                            content = @Content(schema = @Schema(
+                                    example = "{\"ошибка\":\"Некорректный курсор страницы\"}"))),
                 @ApiResponse(responseCode = "404", description = "Комментарии не найдены",
                             content = @Content(schema = @Schema(
                                     example = "{\"ошибка\":\"Комментарии не найдены\"}"))),
@@ -104,16 +119,20 @@ public class CommentsController {
                                     example = "{\"ошибка\":\"Внутренняя ошибка сервера\"}")))
             })
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<CommentsResponseDto>> getCommentsByUserId(
+    public ResponseEntity<CursorPageDto<CommentsResponseDto>> getCommentsByUserId(
             @PathVariable @Positive(message = "ID пользователя должен быть положительным числом")
-            Long userId) {
+            Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
         log.debug("Запрос комментариев пользователя ID: {}", userId);
-        List<CommentsResponseDto> comments = commentsService.getCommentsByUserIdDto(userId);
-        if (comments.isEmpty()) {
+        CursorPageDto<CommentsResponseDto> comments =
+                commentsService.getCommentsByUserIdDto(userId, before, limit);
+        if (comments.getItems().isEmpty() && before == null) {
             log.warn("Комментарии пользователя ID: {} не найдены", userId);
             throw new CommentNotFoundException("Комментарии не найдены");
         }
-        log.info("Найдено {} комментариев пользователя ID: {}", comments.size(), userId);
+        log.info("Найдено {} комментариев пользователя ID: {}",
+                comments.getItems().size(), userId);
         return ResponseEntity.ok(comments);
     }
 
@@ -0,0 +1,39 @@
+package com.univer.bookcom.controller;
+
+import com.univer.bookcom.model.dto.response.PurgeStatusDto;
+import com.univer.bookcom.service.PurgeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/purge")
+@Tag(name = "Фоновая очистка", description = "API для наблюдения за очисткой удалённых данных")
+public class PurgeController {
+
+    private final PurgeService purgeService;
+
+    public PurgeController(PurgeService purgeService) {
+        this.purgeService = purgeService;
+    }
+
+    @Operation(
+            summary = "Получить состояние фоновой очистки",
+            description = "Возвращает число ожидающих очистки пользователей и книг,"
+                    + " текущую запись и счётчики удалённых строк",
+            responses = {
+                @ApiResponse(responseCode = "200", description = "Успешный ответ",
+                            content = @Content(schema = @Schema(
+                                    implementation = PurgeStatusDto.class)))
+            }
+    )
+    @GetMapping("/status")
+    public PurgeStatusDto getStatus() {
+        return purgeService.getStatus();
+    }
+}
\ No newline at end of file
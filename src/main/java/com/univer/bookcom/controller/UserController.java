@@ -3,7 +3,8 @@ package com.univer.bookcom.controller;
 import com.univer.bookcom.exception.UserNotFoundException;
 import com.univer.bookcom.model.dto.request.BookRequestDto;
 import com.univer.bookcom.model.dto.request.UserRequestDto;
-import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.model.dto.response.BookImportResultDto;
+import com.univer.bookcom.model.dto.response.CursorPageDto;
 import com.univer.bookcom.model.dto.response.UserResponseDto;
 import com.univer.bookcom.service.BookService;
 import com.univer.bookcom.service.UserService;
@@ -15,8 +16,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,21 +54,27 @@ public class UserController {
         this.bookService = bookService;
     }
 
-    @Operation(summary = "Получить всех пользователей",
-            description = "Возвращает список всех пользователей",
+    @Operation(summary = "Получить пользователей постранично",
+            description = "Пользователи упорядочены по ID; для следующей страницы передайте "
+                    + "nextCursor из ответа в параметре after",
             responses = {
                 @ApiResponse(responseCode = "200", description = "Пользователи найдены",
-                            content = @Content(array = @ArraySchema(
-                                    schema = @Schema(implementation = UserResponseDto.class)))),
+                            content = @Content(schema =
+                            @Schema(implementation = CursorPageDto.class))),
+                @ApiResponse(responseCode = "400", description = "Некорректные параметры страницы",
+                            content = @Content(schema = @Schema(
+                                    example = "{\"ошибка\":\"Некорректные данные\"}"))),
                 @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
                             content = @Content(schema = @Schema(
                                     example = "{\"ошибка\":\"Внутренняя ошибка сервера\"}")))
             })
     @GetMapping
-    public ResponseEntity<List<UserResponseDto>> getAllUsers() {
-        log.debug("Запрос всех пользователей");
-        List<UserResponseDto> users = userService.getAllUsersDto();
-        log.info("Успешно возвращено {} пользователей", users.size());
+    public ResponseEntity<CursorPageDto<UserResponseDto>> getAllUsers(
+            @RequestParam(defaultValue = "0") @PositiveOrZero long after,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
+        log.debug("Запрос страницы пользователей после ID {}", after);
+        CursorPageDto<UserResponseDto> users = userService.getAllUsersDto(after, limit);
+        log.info("Успешно возвращено {} пользователей", users.getItems().size());
         return ResponseEntity.ok(users);
     }
 
@@ -147,7 +157,7 @@ public class UserController {
     }
 
     @Operation(summary = "Удалить пользователя",
-            description = "Удаляет пользователя и связанные данные",
+            description = "Помечает пользователя удалённым, связанные данные очищаются в фоне",
             responses = {
                 @ApiResponse(responseCode = "204", description = "Пользователь удален"),
                 @ApiResponse(responseCode = "400", description = "Некорректный ID",
@@ -170,12 +180,13 @@ public class UserController {
             throw new UserNotFoundException(USER_NOT_FOUND_MSG);
         }
         userService.deleteUser(id);
-        log.info("Пользователь и связанные данные успешно удалены");
+        log.info("Пользователь помечен удалённым");
         return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Поиск пользователей по имени",
-            description = "Возвращает пользователей по имени",
+            description = "Возвращает пользователей, имя которых содержит строку, "
+                    + "ближайшие по сходству первыми",
             responses = {
                 @ApiResponse(responseCode = "200", description = "Пользователи найдены",
                             content = @Content(array = @ArraySchema(
@@ -193,9 +204,10 @@ public class UserController {
     @GetMapping("/search/name")
     public ResponseEntity<List<UserResponseDto>> searchUsersByName(
             @RequestParam @NotBlank(message = "Имя пользователя не может быть пустым")
-            String name) {
+            String name,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
         log.debug("Поиск пользователей по имени: {}", name);
-        List<UserResponseDto> users = userService.findUsersByNameDto(name);
+        List<UserResponseDto> users = userService.findUsersByNameDto(name, limit);
         if (users.isEmpty()) {
             log.warn("Пользователи не найдены");
             throw new UserNotFoundException("Пользователи не найдены");
@@ -352,11 +364,12 @@ public class UserController {
 
     @Operation(summary = "Добавить несколько книг пользователю",
             description = "Добавляет несколько книг пользователю. Книга не будет "
-                    + "добавлена, если у пользователя уже есть книга с таким названием",
+                    + "добавлена, если такая книга уже есть у пользователя или у других "
+                    + "авторов; результат возвращается для каждой книги запроса",
             responses = {
-                @ApiResponse(responseCode = "200", description = "Книги успешно добавлены",
-                            content = @Content(array = @ArraySchema(
-                                    schema = @Schema(implementation = BookResponseDto.class)))),
+                @ApiResponse(responseCode = "200", description = "Пакет обработан",
+                            content = @Content(array = @ArraySchema(schema =
+                                    @Schema(implementation = BookImportResultDto.class)))),
                 @ApiResponse(responseCode = "400", description = "Некорректные данные",
                             content = @Content(schema = @Schema(
                                     example = "{\"ошибка\":\"Некорректные данные\"}"))),
@@ -368,14 +381,14 @@ public class UserController {
                                     example = "{\"ошибка\":\"Внутренняя ошибка сервера\"}")))
             })
     @PostMapping("/{userId}/books/bulk")
-    public ResponseEntity<List<BookResponseDto>> addBooksToUserBulk(
+    public ResponseEntity<List<BookImportResultDto>> addBooksToUserBulk(
             @PathVariable @Positive(message = "ID пользователя должен быть положительным числом")
             Long userId,
             @Valid @RequestBody List<BookRequestDto> bookDtos) {
         log.debug("Добавление нескольких книг пользователю с ID {}", userId);
-        List<BookResponseDto> addedBooks = userService.addBooksToUserBulkDto(userId, bookDtos);
-        log.info("Успешно добавлено {} книг", addedBooks.size());
-        return ResponseEntity.ok(addedBooks);
+        List<BookImportResultDto> results = userService.addBooksToUserBulkDto(userId, bookDtos);
+        log.info("Обработано {} книг пакета", results.size());
+        return ResponseEntity.ok(results);
     }
 
     @Operation(summary = "Получить количество книг пользователя",
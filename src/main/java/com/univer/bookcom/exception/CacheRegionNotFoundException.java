@@ -0,0 +1,7 @@
+package com.univer.bookcom.exception;
+
+public class CacheRegionNotFoundException extends RuntimeException {
+    public CacheRegionNotFoundException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
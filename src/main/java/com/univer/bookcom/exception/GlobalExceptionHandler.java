@@ -89,6 +89,25 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(CacheRegionNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleCacheRegionNotFound(
+            CacheRegionNotFoundException ex) {
+        log.warn("Cache region not found: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCacheKeyException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCacheKey(InvalidCacheKeyException ex) {
+        log.warn("Invalid cache key: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursor(InvalidCursorException ex) {
+        log.warn("Invalid page cursor: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String,
             Object>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
@@ -0,0 +1,7 @@
+package com.univer.bookcom.exception;
+
+public class InvalidCacheKeyException extends RuntimeException {
+    public InvalidCacheKeyException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
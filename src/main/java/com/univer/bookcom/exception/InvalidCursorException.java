@@ -0,0 +1,7 @@
+package com.univer.bookcom.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
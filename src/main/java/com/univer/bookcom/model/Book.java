@@ -1,6 +1,7 @@
 package com.univer.bookcom.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -8,10 +9,12 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -19,12 +22,27 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
+// Удалённые книги скрыты от всех запросов Hibernate до физической очистки PurgeService.
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+    @Index(name = "idx_books_title", columnList = "title"),
+    @Index(name = "idx_books_status_year", columnList = "status, public_year"),
+    @Index(name = "idx_books_public_year", columnList = "public_year")
+})
+@SQLRestriction("deleted = false")
 public class Book {
+    public static final String ID_SEQUENCE = "books_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Последовательность с пулом ID вместо IDENTITY: ID известен до вставки, поэтому
+    // Hibernate может отправлять INSERT пакетами.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE,
+            allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank(message = "Название книги не может быть пустым")
@@ -35,6 +53,7 @@ public class Book {
 
     @Min(value = 1000, message = "Год публикации должен быть не ранее 1000")
     @Max(value = 2100, message = "Год публикации должен быть не позднее 2100")
+    @Column(name = "public_year", nullable = false)
     private long publicYear;
 
     @NotBlank(message = "Описание книги не может быть пустым")
@@ -49,7 +68,11 @@ public class Book {
     @JoinTable(
             name = "book_user",
             joinColumns = @JoinColumn(name = "book_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
+            inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = {
+                @Index(name = "idx_book_user_book", columnList = "book_id, user_id"),
+                @Index(name = "idx_book_user_user", columnList = "user_id, book_id")
+            }
     )
     private List<User> authors = new ArrayList<>();
 
@@ -57,6 +80,10 @@ public class Book {
             orphanRemoval = true)
     private List<Comments> comments = new ArrayList<>();
 
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
+
     public Book() {
         this.authors = new ArrayList<>();
         this.comments = new ArrayList<>();
@@ -151,4 +178,12 @@ public class Book {
     public void setComments(List<Comments> comments) {
         this.comments = comments != null ? new ArrayList<>(comments) : new ArrayList<>();
     }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
 }
\ No newline at end of file
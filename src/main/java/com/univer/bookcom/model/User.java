@@ -1,11 +1,13 @@
 package com.univer.bookcom.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -14,9 +16,16 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
+// Удалённые пользователи скрыты от всех запросов Hibernate до физической очистки
+// PurgeService.
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_name", columnList = "name")
+})
+@SQLRestriction("deleted = false")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -43,6 +52,10 @@ public class User {
             cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comments> comments = new ArrayList<>();
 
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean deleted;
+
     public User() {
         this.books = new ArrayList<>();
         this.comments = new ArrayList<>();
@@ -109,4 +122,12 @@ public class User {
     public void setComments(List<Comments> comments) {
         this.comments = comments != null ? new ArrayList<>(comments) : new ArrayList<>();
     }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.univer.bookcom.model.dto.response;
+
+import java.util.List;
+
+/**
+ * Списки, собранные в SQL через {@code listagg} в одну строку. Разделитель - управляющий
+ * символ US, который не встречается в названиях, именах и текстах комментариев.
+ */
+public final class AggregatedValues {
+    public static final String SEPARATOR = "\u001F";
+
+    private AggregatedValues() {
+    }
+
+    public static List<String> split(String aggregated) {
+        if (aggregated == null) {
+            return List.of();
+        }
+        return List.of(aggregated.split(SEPARATOR, -1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.univer.bookcom.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Результат добавления одной книги из пакета")
+public class BookImportResultDto {
+
+    public enum Status {
+        CREATED,
+        ALREADY_OWNED,
+        OWNED_BY_OTHER_AUTHORS,
+        INVALID
+    }
+
+    @Schema(description = "Позиция книги в запросе", example = "0")
+    private int index;
+
+    @Schema(description = "Название книги из запроса", example = "Великий роман")
+    private String title;
+
+    @Schema(description = "Результат обработки", example = "CREATED")
+    private Status status;
+
+    @Schema(description = "Причина, если книга не добавлена",
+            example = "Год публикации должен быть не ранее 1000")
+    private String message;
+
+    @Schema(description = "Созданная книга, если она добавлена")
+    private BookResponseDto book;
+}
\ No newline at end of file
@@ -1,37 +1,59 @@
 package com.univer.bookcom.model.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.univer.bookcom.model.BookStatus;
 import io.swagger.v3.oas.annotations.media.Schema;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
-import lombok.Setter;
 
+// Неизменяемый: один и тот же экземпляр хранится в кэше и отдаётся всем читателям.
 @Getter
-@Setter
 @Schema(description = "DTO для получения информации о книге")
 public class BookResponseDto {
 
     @JsonProperty(required = true)
     @Schema(description = "ID книги", example = "1")
-    private Long id;
+    private final Long id;
 
     @Schema(description = "Название книги", example = "Великий роман")
-    private String title;
+    private final String title;
 
     @Schema(description = "Количество глав в книге", example = "12")
-    private Long countChapters;
+    private final Long countChapters;
 
     @Schema(description = "Год публикации книги", example = "2020")
-    private Long publicYear;
+    private final Long publicYear;
 
     @Schema(description = "Описание книги", example = "Захватывающий роман о приключениях")
-    private String description;
+    private final String description;
 
     @Schema(description = "Статус книги", example = "PUBLISHED")
-    private String bookStatus;
+    private final String bookStatus;
 
     @Schema(description = "Список имен авторов книги",
             example = "[\"Иван Иванов\", \"Мария Петрова\"]")
-    private List<String> authorNames = new ArrayList<>();
+    private final List<String> authorNames;
+
+    public BookResponseDto(Long id, String title, Long countChapters, Long publicYear,
+                           String description, String bookStatus, List<String> authorNames) {
+        this.id = id;
+        this.title = title;
+        this.countChapters = countChapters;
+        this.publicYear = publicYear;
+        this.description = description;
+        this.bookStatus = bookStatus;
+        this.authorNames = authorNames != null ? authorNames.stream().toList() : List.of();
+    }
+
+    // Для JPQL-проекций: имена авторов агрегируются в SQL в одну строку.
+    public BookResponseDto(Long id, String title, long countChapters, long publicYear,
+                           String description, BookStatus status, String authorNames) {
+        this.id = id;
+        this.title = title;
+        this.countChapters = countChapters;
+        this.publicYear = publicYear;
+        this.description = description;
+        this.bookStatus = status.name();
+        this.authorNames = AggregatedValues.split(authorNames);
+    }
 }
\ No newline at end of file
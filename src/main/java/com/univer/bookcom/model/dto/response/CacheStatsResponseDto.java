@@ -0,0 +1,48 @@
+package com.univer.bookcom.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "DTO со статистикой области кэша")
+public class CacheStatsResponseDto {
+
+    @Schema(description = "Имя области кэша", example = "books")
+    private String name;
+
+    @Schema(description = "Количество записей", example = "1520")
+    private int size;
+
+    @Schema(description = "Оценка занимаемой памяти в байтах", example = "170240")
+    private long estimatedBytes;
+
+    @Schema(description = "Количество попаданий", example = "98000")
+    private long hits;
+
+    @Schema(description = "Количество промахов", example = "2000")
+    private long misses;
+
+    @Schema(description = "Доля попаданий", example = "0.98")
+    private double hitRate;
+
+    @Schema(description = "Количество успешных загрузок из БД", example = "1990")
+    private long loads;
+
+    @Schema(description = "Количество неудачных загрузок из БД", example = "10")
+    private long loadFailures;
+
+    @Schema(description = "Среднее время загрузки в миллисекундах", example = "3.5")
+    private double averageLoadMillis;
+
+    @Schema(description = "Вытеснено из-за ограничения размера", example = "300")
+    private long sizeEvictions;
+
+    @Schema(description = "Удалено по истечении срока жизни", example = "120")
+    private long expiredEvictions;
+
+    @Schema(description = "Удалено явно: при изменении данных или администратором",
+            example = "45")
+    private long explicitEvictions;
+}
\ No newline at end of file
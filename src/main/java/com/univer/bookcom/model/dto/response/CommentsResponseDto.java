@@ -4,30 +4,41 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.LocalDateTime;
 import lombok.Getter;
-import lombok.Setter;
 
+// Неизменяемый: один и тот же экземпляр хранится в кэше и отдаётся всем читателям.
 @Getter
-@Setter
 @Schema(description = "DTO for retrieving comment information")
 public class CommentsResponseDto {
 
     @JsonProperty(required = true)
     @Schema(description = "Comment ID", example = "1")
-    private Long id;
+    private final Long id;
 
     @Schema(description = "Text of the comment", example = "This book is amazing!")
-    private String text;
+    private final String text;
 
     @Schema(description = "Timestamp when the comment was created", example = "2023-10-01T12:00:00")
-    private LocalDateTime createdAt;
+    private final LocalDateTime createdAt;
 
     @Schema(description = "Name of the user who made the comment", example = "John Doe")
-    private String userName;
+    private final String userName;
 
     @Schema(description = "Title of the book the comment is for", example = "The Great Novel")
-    private String bookTitle;
+    private final String bookTitle;
 
     @JsonProperty(required = true)
     @Schema(description = "ID of the user who made the comment", example = "1")
-    private Long userId;
+    private final Long userId;
+
+    // Используется и JPQL-проекциями: страницы ленты читаются одним запросом без загрузки
+    // сущностей.
+    public CommentsResponseDto(long id, String text, LocalDateTime createdAt, String userName,
+                               String bookTitle, Long userId) {
+        this.id = id;
+        this.text = text;
+        this.createdAt = createdAt;
+        this.userName = userName;
+        this.bookTitle = bookTitle;
+        this.userId = userId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.univer.bookcom.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Страница списка с курсором для запроса следующей страницы")
+public class CursorPageDto<T> {
+
+    @Schema(description = "Элементы страницы")
+    private List<T> items = new ArrayList<>();
+
+    @Schema(description = "Курсор следующей страницы, null если страница последняя",
+            example = "120")
+    private String nextCursor;
+
+    /**
+     * Собирает страницу из {@code limit + 1} выбранных строк: лишняя строка только
+     * показывает, что следующая страница есть, и в ответ не попадает.
+     */
+    public static <T> CursorPageDto<T> of(List<T> rows, int limit, Function<T, String> cursor) {
+        CursorPageDto<T> page = new CursorPageDto<>();
+        if (rows.size() > limit) {
+            page.setItems(new ArrayList<>(rows.subList(0, limit)));
+            page.setNextCursor(cursor.apply(rows.get(limit - 1)));
+        } else {
+            page.setItems(rows);
+        }
+        return page;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.univer.bookcom.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Состояние фоновой очистки удалённых пользователей и книг")
+public class PurgeStatusDto {
+
+    @Schema(description = "Пользователи, помеченные удалёнными и ещё не очищенные",
+            example = "3")
+    private long pendingUsers;
+
+    @Schema(description = "Книги, помеченные удалёнными и ещё не очищенные", example = "12")
+    private long pendingBooks;
+
+    @Schema(description = "Очищаемая сейчас запись, если очистка идёт", example = "user:42")
+    private String current;
+
+    @Schema(description = "Удалено комментариев с момента запуска", example = "15000")
+    private long purgedComments;
+
+    @Schema(description = "Удалено связей книга-автор с момента запуска", example = "800")
+    private long purgedLinks;
+
+    @Schema(description = "Удалено книг с момента запуска", example = "120")
+    private long purgedBooks;
+
+    @Schema(description = "Удалено пользователей с момента запуска", example = "4")
+    private long purgedUsers;
+
+    @Schema(description = "Время завершения последнего прохода очистки")
+    private LocalDateTime lastRunAt;
+}
\ No newline at end of file
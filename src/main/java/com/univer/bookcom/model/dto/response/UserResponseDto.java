@@ -2,31 +2,48 @@ package com.univer.bookcom.model.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
-import lombok.Setter;
 
+// Неизменяемый: один и тот же экземпляр хранится в кэше и отдаётся всем читателям.
 @Getter
-@Setter
 @Schema(description = "DTO for retrieving user information")
 public class UserResponseDto {
 
     @JsonProperty(required = true)
     @Schema(description = "User ID", example = "1")
-    private Long id;
+    private final Long id;
 
     @Schema(description = "Name of the user", example = "John Doe")
-    private String name;
+    private final String name;
 
     @Schema(description = "User's email address", example = "john.doe@example.com")
-    private String email;
+    private final String email;
 
     @Schema(description = "List of book titles authored by the user",
             example = "[\"Book One\", \"Book Two\"]")
-    private List<String> bookTitles = new ArrayList<>();
+    private final List<String> bookTitles;
 
     @Schema(description = "List of comment texts made by the user",
             example = "[\"Great book!\", \"Needs more details.\"]")
-    private List<String> commentTexts = new ArrayList<>();
+    private final List<String> commentTexts;
+
+    public UserResponseDto(Long id, String name, String email, List<String> bookTitles,
+                           List<String> commentTexts) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.bookTitles = bookTitles != null ? bookTitles.stream().toList() : List.of();
+        this.commentTexts = commentTexts != null ? commentTexts.stream().toList() : List.of();
+    }
+
+    // Для JPQL-проекций: названия книг и тексты комментариев агрегируются в SQL.
+    public UserResponseDto(Long id, String name, String email, String bookTitles,
+                           String commentTexts) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.bookTitles = AggregatedValues.split(bookTitles);
+        this.commentTexts = AggregatedValues.split(commentTexts);
+    }
 }
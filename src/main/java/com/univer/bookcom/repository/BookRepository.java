@@ -3,21 +3,83 @@ package com.univer.bookcom.repository;
 import com.univer.bookcom.model.Book;
 import com.univer.bookcom.model.BookStatus;
 import com.univer.bookcom.model.User;
+import com.univer.bookcom.model.dto.response.AggregatedValues;
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
-    List<Book> findByTitle(String title);
+    // Проекция для чтения: имена авторов собираются в SQL, сущности в контекст не попадают.
+    String DTO_SELECT = "SELECT new com.univer.bookcom.model.dto.response.BookResponseDto("
+            + "b.id, b.title, b.countChapters, b.publicYear, b.description, b.status, "
+            + "listagg(a.name, '" + AggregatedValues.SEPARATOR + "') "
+            + "WITHIN GROUP (ORDER BY a.id)) "
+            + "FROM Book b LEFT JOIN b.authors a ";
+    String DTO_GROUP_BY = "GROUP BY b.id ";
 
-    @Query("SELECT b FROM Book b JOIN b.authors a WHERE a.name = :author")
-    List<Book> findByAuthor(@Param("author") String author);
+    @Query("SELECT b.id FROM Book b")
+    List<Long> findAllIds();
 
-    List<Book> findByPublicYear(long publicYear);
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
-    List<Book> findByStatus(BookStatus status);
+    @Query(DTO_SELECT + "WHERE b.id = :id " + DTO_GROUP_BY)
+    Optional<BookResponseDto> findDtoById(@Param("id") Long id);
+
+    @Query(DTO_SELECT + "WHERE b.id > :after " + DTO_GROUP_BY + "ORDER BY b.id")
+    List<BookResponseDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    @Query(DTO_SELECT + "WHERE b.title = :title " + DTO_GROUP_BY + "ORDER BY b.id")
+    List<BookResponseDto> findDtosByTitle(@Param("title") String title);
+
+    @Query(DTO_SELECT + "WHERE b.id IN (SELECT ab.id FROM Book ab JOIN ab.authors aa "
+            + "WHERE aa.name = :author) " + DTO_GROUP_BY + "ORDER BY b.id")
+    List<BookResponseDto> findDtosByAuthor(@Param("author") String author);
+
+    @Query(DTO_SELECT + "WHERE b.publicYear = :publicYear " + DTO_GROUP_BY + "ORDER BY b.id")
+    List<BookResponseDto> findDtosByPublicYear(@Param("publicYear") long publicYear);
+
+    @Query(DTO_SELECT + "WHERE b.status = :status " + DTO_GROUP_BY + "ORDER BY b.id")
+    List<BookResponseDto> findDtosByStatus(@Param("status") BookStatus status);
+
+    @Query(DTO_SELECT + "WHERE b.id IN :ids " + DTO_GROUP_BY)
+    List<BookResponseDto> findDtosByIds(@Param("ids") Collection<Long> ids);
+
+    // Столбец search_vector и GIN-индекс по нему создаёт SchemaInitializer. Запрос нативный,
+    // поэтому удалённые книги отсекаются явно.
+    @Query(value = "SELECT b.id FROM books b, websearch_to_tsquery('russian', :query) q "
+            + "WHERE b.search_vector @@ q AND NOT b.deleted "
+            + "ORDER BY ts_rank(b.search_vector, q) DESC, b.id "
+            + "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Long> searchIdsByText(@Param("query") String query, @Param("offset") int offset,
+                               @Param("limit") int limit);
+
+    @Query("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b.authors WHERE b.title IN :titles")
+    List<Book> findWithAuthorsByTitleIn(@Param("titles") Collection<String> titles);
+
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.authors WHERE b.id = :id")
+    Optional<Book> findWithAuthorsById(@Param("id") Long id);
+
+    @Query("SELECT b.id FROM Book b JOIN b.authors a WHERE a.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    // Несохранённые изменения сущностей сбрасываются до пометки, чтобы их UPDATE
+    // не выполнился позже поверх неё.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.deleted = true WHERE b.id = :id")
+    int markDeleted(@Param("id") Long id);
+
+    @Query("SELECT a.name FROM Book b JOIN b.authors a WHERE b.id = :bookId ORDER BY a.id")
+    List<String> findAuthorNamesByBookId(@Param("bookId") Long bookId);
+
+    @Query("SELECT COUNT(b) FROM Book b JOIN b.authors a WHERE a.id = :authorId")
+    long countByAuthorId(@Param("authorId") Long authorId);
 
     List<Book> findByAuthorsContaining(User author);
 
@@ -1,13 +1,47 @@
 package com.univer.bookcom.repository;
 
 import com.univer.bookcom.model.Comments;
+import com.univer.bookcom.model.dto.response.CommentsResponseDto;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CommentsRepository extends JpaRepository<Comments, Long> {
-    List<Comments> findByBookId(Long bookId);
+    String FEED_SELECT = "SELECT new com.univer.bookcom.model.dto.response.CommentsResponseDto("
+            + "c.id, c.text, c.createdAt, u.name, b.title, u.id) "
+            + "FROM Comments c JOIN c.user u ON u.deleted = false "
+            + "JOIN c.book b ON b.deleted = false ";
+    // Условие c.createdAt <= :createdAt дублирует курсор, чтобы сканирование индекса
+    // (book_id/user_id, created_at, id) начиналось сразу с нужной позиции.
+    String BEFORE_CURSOR = "AND c.createdAt <= :createdAt AND (c.createdAt < :createdAt "
+            + "OR c.id < :id) ";
+    String NEWEST_FIRST = "ORDER BY c.createdAt DESC, c.id DESC";
 
-    List<Comments> findByUserId(Long userId);
+    @Query(FEED_SELECT + "WHERE c.book.id = :bookId " + NEWEST_FIRST)
+    List<CommentsResponseDto> findBookFeed(@Param("bookId") Long bookId, Limit limit);
+
+    @Query(FEED_SELECT + "WHERE c.book.id = :bookId " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<CommentsResponseDto> findBookFeedBefore(@Param("bookId") Long bookId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Limit limit);
+
+    @Query(FEED_SELECT + "WHERE c.user.id = :userId " + NEWEST_FIRST)
+    List<CommentsResponseDto> findUserFeed(@Param("userId") Long userId, Limit limit);
+
+    @Query(FEED_SELECT + "WHERE c.user.id = :userId " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<CommentsResponseDto> findUserFeedBefore(@Param("userId") Long userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Limit limit);
+
+    @Query("SELECT c.id FROM Comments c")
+    List<Long> findAllIds();
+
+    @Query("SELECT c.id FROM Comments c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
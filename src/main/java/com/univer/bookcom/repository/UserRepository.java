@@ -1,28 +1,66 @@
 package com.univer.bookcom.repository;
 
 import com.univer.bookcom.model.User;
+import com.univer.bookcom.model.dto.response.AggregatedValues;
+import com.univer.bookcom.model.dto.response.UserResponseDto;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Проекция для чтения: книги и комментарии агрегируются коррелированными подзапросами,
+    // чтобы две коллекции не перемножались в одном соединении.
+    String DTO_SELECT = "SELECT new com.univer.bookcom.model.dto.response.UserResponseDto("
+            + "u.id, u.name, u.email, "
+            + "(SELECT listagg(b.title, '" + AggregatedValues.SEPARATOR + "') "
+            + "WITHIN GROUP (ORDER BY b.id) FROM Book b JOIN b.authors ba WHERE ba.id = u.id), "
+            + "(SELECT listagg(c.text, '" + AggregatedValues.SEPARATOR + "') "
+            + "WITHIN GROUP (ORDER BY c.id) FROM Comments c JOIN c.book cb "
+            + "WHERE c.user.id = u.id)) "
+            + "FROM User u ";
+
     Optional<User> findByEmail(String email);
 
-    @Query("SELECT u FROM User u WHERE u.name LIKE %:name%")
-    List<User> findByNameContaining(@Param("name") String name);
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    @Query(DTO_SELECT + "WHERE u.id = :id")
+    Optional<UserResponseDto> findDtoById(@Param("id") Long id);
+
+    @Query(DTO_SELECT + "WHERE u.email = :email")
+    Optional<UserResponseDto> findDtoByEmail(@Param("email") String email);
 
-    @Query("SELECT u FROM User u JOIN u.books b WHERE b.title = :title")
-    List<User> findUsersByBookTitle(@Param("title") String title);
+    @Query(DTO_SELECT + "WHERE u.id IN :ids")
+    List<UserResponseDto> findDtosByIds(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT u FROM User u JOIN u.books b WHERE b.title = :title")
-    List<User> findAuthorsByBookTitle(@Param("title") String title);
+    @Query(DTO_SELECT + "WHERE u.id > :after ORDER BY u.id")
+    List<UserResponseDto> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    // Подстрока ищется через ILIKE, который обслуживает GIN-индекс pg_trgm
+    // idx_users_name_trgm; ближайшие по триграммам имена идут первыми.
+    @Query(DTO_SELECT + "WHERE u.name ILIKE :pattern ESCAPE '\\' "
+            + "ORDER BY function('similarity', u.name, :name) DESC, u.id")
+    List<UserResponseDto> searchDtosByName(@Param("pattern") String pattern,
+                                           @Param("name") String name, Limit limit);
+
+    @Query(DTO_SELECT + "WHERE u.id IN (SELECT ta.id FROM Book tb JOIN tb.authors ta "
+            + "WHERE tb.title = :title) ORDER BY u.id")
+    List<UserResponseDto> findDtosByBookTitle(@Param("title") String title);
 
     @Query("SELECT u FROM User u JOIN u.books b WHERE b.id = :bookId")
     List<User> findUsersByBookId(@Param("bookId") Long bookId);
 
+    // Несохранённые изменения сущностей сбрасываются до пометки, чтобы их UPDATE
+    // не выполнился позже поверх неё.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.deleted = true WHERE u.id = :id")
+    int markDeleted(@Param("id") Long id);
+
     @Modifying
     @Query(value = "DELETE FROM book_user WHERE user_id = :userId", nativeQuery = true)
     void deleteBookUserAssociations(@Param("userId") Long userId);
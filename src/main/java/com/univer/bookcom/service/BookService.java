@@ -1,7 +1,9 @@
 package com.univer.bookcom.service;
 
+import com.univer.bookcom.cache.BookSearchCache;
 import com.univer.bookcom.cache.CacheContainer;
-import com.univer.bookcom.cache.CacheEntry;
+import com.univer.bookcom.cache.CacheRegion;
+import com.univer.bookcom.cache.CacheUpdates;
 import com.univer.bookcom.exception.BookNotFoundException;
 import com.univer.bookcom.exception.UserNotFoundException;
 import com.univer.bookcom.model.Book;
@@ -9,80 +11,82 @@ import com.univer.bookcom.model.BookStatus;
 import com.univer.bookcom.model.User;
 import com.univer.bookcom.model.dto.request.BookRequestDto;
 import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.model.dto.response.CursorPageDto;
 import com.univer.bookcom.repository.BookRepository;
 import com.univer.bookcom.repository.CommentsRepository;
 import com.univer.bookcom.repository.UserRepository;
 import com.univer.bookcom.service.mapper.BookMapper;
 import jakarta.transaction.Transactional;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
 public class BookService {
     private static final Logger log = LoggerFactory.getLogger(BookService.class);
-    private static final int MAX_CACHE_SIZE = 3;
 
     private final BookRepository bookRepository;
     private final UserService userService;
     private final UserRepository userRepository;
     private final CommentsRepository commentsRepository;
     private final BookMapper bookMapper;
-    private final Map<Long, CacheEntry<Book>> bookCache;
+    private final CacheRegion<BookResponseDto> bookCache;
+    private final BookSearchCache bookSearchCache;
     private final CacheContainer cacheContainer;
+    private final CacheUpdates cacheUpdates;
 
     public BookService(BookRepository bookRepository, UserService userService,
                        UserRepository userRepository, CommentsRepository commentsRepository,
-                       BookMapper bookMapper, CacheContainer cacheContainer) {
+                       BookMapper bookMapper, CacheContainer cacheContainer,
+                       CacheUpdates cacheUpdates) {
         this.bookRepository = bookRepository;
         this.userService = userService;
         this.userRepository = userRepository;
         this.commentsRepository = commentsRepository;
         this.bookMapper = bookMapper;
         this.bookCache = cacheContainer.getBookCache();
+        this.bookSearchCache = cacheContainer.getBookSearchCache();
         this.cacheContainer = cacheContainer;
+        this.cacheUpdates = cacheUpdates;
     }
 
-    @Transactional
-    public List<BookResponseDto> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(bookMapper::toResponseDto)
-                .collect(Collectors.toList());
+    // Keyset-пагинация по первичному ключу: страница читается диапазоном индекса
+    // id > after независимо от её номера, в отличие от OFFSET.
+    public CursorPageDto<BookResponseDto> getAllBooks(long after, int limit) {
+        List<BookResponseDto> rows = bookRepository.findDtosAfter(after, Limit.of(limit + 1));
+        return CursorPageDto.of(rows, limit, book -> String.valueOf(book.getId()));
     }
 
-    @Transactional
     public Optional<BookResponseDto> getBookById(Long id) {
-        CacheEntry<Book> cacheEntry = bookCache.get(id);
-        if (cacheEntry != null) {
-            log.debug("Книга найдена в кэше: {}", id);
-            Book book = cacheEntry.getValue();
-            Hibernate.initialize(book.getAuthors());
-            log.debug("Коллекция authors для кэшированной книги ID {} инициализирована: {}",
-                    id, Hibernate.isInitialized(book.getAuthors()));
-            return Optional.of(bookMapper.toResponseDto(book));
-        }
+        return Optional.ofNullable(bookCache.get(id, this::loadBook));
+    }
 
-        return bookRepository.findById(id)
-                .map(book -> {
-                    Hibernate.initialize(book.getAuthors());
-                    log.debug("Коллекция authors для книги ID {} из БД инициализирована: {}",
-                            id, Hibernate.isInitialized(book.getAuthors()));
-                    addToCache(id, book);
-                    return bookMapper.toResponseDto(book);
-                });
+    private BookResponseDto loadBook(Long id) {
+        log.debug("Книга не найдена в кэше, загрузка из БД: {}", id);
+        return bookRepository.findDtoById(id).orElse(null);
+    }
+
+    // Прогрев кэша: отсутствующие в нём книги читаются одним запросом.
+    public void preloadBooks(Collection<Long> ids) {
+        bookCache.loadAll(ids, missing -> bookRepository.findDtosByIds(missing).stream()
+                .collect(Collectors.toMap(BookResponseDto::getId, Function.identity())));
     }
 
     @Transactional
     public BookResponseDto updateBook(Long id, BookRequestDto updatedBookDto) {
         Book existing = bookRepository.findById(id)
                 .orElseThrow(() -> new BookNotFoundException("Книга с id " + id + " не найдена"));
+        cacheUpdates.bookChanged(existing);
 
         existing.setTitle(updatedBookDto.getTitle());
         existing.setCountChapters(updatedBookDto.getCountChapters());
@@ -94,72 +98,64 @@ public class BookService {
         log.debug("Коллекция authors для книги ID {} инициализирована перед обновлением: {}",
                 id, Hibernate.isInitialized(existing.getAuthors()));
         Book saved = bookRepository.save(existing);
-        addToCache(id, saved);
-        log.info("Книга обновлена и закэширована: {}", id);
-        return bookMapper.toResponseDto(saved);
+        saved.getAuthors().forEach(author -> cacheUpdates.evictUser(author.getId()));
+        cacheUpdates.bookChanged(saved);
+        BookResponseDto dto = toDtoAndEvict(id, saved);
+        log.info("Книга обновлена: {}", id);
+        return dto;
     }
 
+    // Книга только помечается удалённой и сразу пропадает из всех запросов;
+    // комментарии и связи с авторами очищает PurgeService.
     @Transactional
     public void deleteBook(Long id) {
-        Book book = bookRepository.findById(id)
+        Book book = bookRepository.findWithAuthorsById(id)
                 .orElseThrow(() -> new BookNotFoundException("Книга с id " + id + " не найдена"));
 
-        Hibernate.initialize(book.getAuthors());
-        Hibernate.initialize(book.getComments());
+        List<Long> authorIds = book.getAuthors().stream().map(User::getId).toList();
+        bookRepository.markDeleted(id);
 
-        log.debug("Книга ID {}: связанные авторы={}", id,
-                book.getAuthors().stream().map(User::getId).collect(Collectors.toList()));
+        cacheUpdates.evictUsers(authorIds);
+        cacheUpdates.bookChanged(book);
+        cacheUpdates.bookDeleted(id);
+        log.info("Книга {} помечена удалённой, авторы: {}", id, authorIds);
+    }
 
-        List<User> authors = new ArrayList<>(book.getAuthors());
-        for (User author : authors) {
-            Hibernate.initialize(author.getBooks());
-            Hibernate.initialize(author.getComments());
-            author.getBooks().removeIf(b -> b.getId().equals(id));
-            author.getComments().removeIf(comment ->
-                    !commentsRepository.existsById(comment.getId()));
-            userRepository.save(author);
-            cacheContainer.getUserCache().put(author.getId(), new CacheEntry<>(author));
-            log.debug("Книга ID {} удалена из коллекции books пользователя ID {}",
-                    id, author.getId());
+    // Страницы по релевантности адресуются смещением: ранг не уникален и для keyset
+    // не годится. Нативный запрос отдаёт ранжированные ID, DTO собираются одним запросом.
+    public CursorPageDto<BookResponseDto> searchBooksByText(String query, int offset, int limit) {
+        List<Long> ids = bookRepository.searchIdsByText(query, offset, limit + 1);
+        if (ids.isEmpty()) {
+            return new CursorPageDto<>();
         }
-
-        book.getComments().forEach(comment -> {
-            commentsRepository.delete(comment);
-            cacheContainer.getCommentsCache().remove(comment.getId());
-            log.debug("Комментарий ID {} удалён для книги ID {}", comment.getId(), id);
-        });
-
-        bookRepository.delete(book);
-        bookCache.remove(id);
-        log.info("Книга удалена из базы и кэша: {}", id);
+        Map<Long, BookResponseDto> byId = bookRepository.findDtosByIds(ids).stream()
+                .collect(Collectors.toMap(BookResponseDto::getId, Function.identity()));
+        List<BookResponseDto> rows = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return CursorPageDto.of(rows, limit, book -> String.valueOf(offset + limit));
     }
 
-    @Transactional
     public List<BookResponseDto> findBooksByTitle(String title) {
-        return bookRepository.findByTitle(title).stream()
-                .map(bookMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return bookSearchCache.get(BookSearchCache.byTitle(title),
+                () -> bookRepository.findDtosByTitle(title));
     }
 
-    @Transactional
     public List<BookResponseDto> findBooksByAuthor(String author) {
-        return bookRepository.findByAuthor(author).stream()
-                .map(bookMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return bookSearchCache.get(BookSearchCache.byAuthor(author),
+                () -> bookRepository.findDtosByAuthor(author));
     }
 
-    @Transactional
     public List<BookResponseDto> findBooksByPublicYear(long publicYear) {
-        return bookRepository.findByPublicYear(publicYear).stream()
-                .map(bookMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return bookSearchCache.get(BookSearchCache.byYear(publicYear),
+                () -> bookRepository.findDtosByPublicYear(publicYear));
     }
 
-    @Transactional
     public List<BookResponseDto> findBooksByStatus(String status) {
-        return bookRepository.findByStatus(BookStatus.valueOf(status)).stream()
-                .map(bookMapper::toResponseDto)
-                .collect(Collectors.toList());
+        BookStatus bookStatus = BookStatus.valueOf(status);
+        return bookSearchCache.get(BookSearchCache.byStatus(bookStatus),
+                () -> bookRepository.findDtosByStatus(bookStatus));
     }
 
     @Transactional
@@ -175,9 +171,10 @@ public class BookService {
         Hibernate.initialize(author.getBooks());
         final List<Long> bookIds = author.getBooks().stream().map(Book::getId)
                 .collect(Collectors.toList());
-        author.getBooks().removeIf(book -> !bookRepository.existsById(book.getId()));
+        Set<Long> existingBooks = existingBookIds(author.getBooks());
+        author.getBooks().removeIf(book -> !existingBooks.contains(book.getId()));
         userRepository.save(author);
-        cacheContainer.getUserCache().put(authorId, new CacheEntry<>(author));
+        cacheUpdates.evictUser(authorId);
         log.debug("Устаревшие книги удалены из коллекции books пользователя ID {}."
                         + "Оставшиеся книги: {}",
                 authorId, bookIds);
@@ -187,6 +184,7 @@ public class BookService {
         log.debug("Коллекция authors для новой книги инициализирована: {}",
                 Hibernate.isInitialized(book.getAuthors()));
         Book saved = bookRepository.save(book);
+        cacheUpdates.bookCreated(saved.getId());
 
         if (!bookRepository.existsByIdAndAuthorId(saved.getId(), authorId)) {
             saved.addAuthor(author);
@@ -196,29 +194,33 @@ public class BookService {
             saved = bookRepository.save(saved);
         }
 
-        addToCache(saved.getId(), saved);
+        cacheUpdates.bookChanged(saved);
+        BookResponseDto dto = toDtoAndEvict(saved.getId(), saved);
         log.info("Книга с автором создана: {}", saved.getId());
-        return bookMapper.toResponseDto(saved);
+        return dto;
     }
 
     public boolean isCachedOrExists(Long id) {
-        return bookCache.containsKey(id) || bookRepository.existsById(id);
+        return bookCache.containsKey(id)
+                || cacheContainer.getBookIds().exists(id, bookRepository::existsById,
+                        cacheUpdates::idChecked);
     }
 
-    private void addToCache(Long id, Book book) {
-        if (bookCache.size() >= MAX_CACHE_SIZE) {
-            Optional<Map.Entry<Long, CacheEntry<Book>>> oldestEntry = bookCache.entrySet().stream()
-                    .min(Comparator.comparingLong(e -> e.getValue().getTimestamp()));
-            oldestEntry.ifPresent(entry -> {
-                bookCache.remove(entry.getKey());
-                log.debug("Удалена устаревшая книга из кэша: {}", entry.getKey());
-            });
-        }
+    // Проверка существования всей коллекции одним запросом вместо запроса на каждый элемент.
+    private Set<Long> existingBookIds(List<Book> books) {
+        return cacheContainer.getBookIds().existing(
+                books.stream().map(Book::getId).toList(), bookRepository::findExistingIds,
+                cacheUpdates::idChecked);
+    }
+
+    private BookResponseDto toDtoAndEvict(Long id, Book book) {
         Hibernate.initialize(book.getAuthors());
         log.debug("Коллекция authors для книги ID {} инициализирована: {}",
                 id, Hibernate.isInitialized(book.getAuthors()));
-        bookCache.put(id, new CacheEntry<>(book));
-        log.debug("Добавляем книгу в кэш: {}", id);
+        BookResponseDto dto = bookMapper.toResponseDto(book);
+        cacheUpdates.evictBook(id);
+        log.debug("Кэш книги ID {} будет сброшен после фиксации", id);
+        return dto;
     }
 
     @Transactional
@@ -247,7 +249,9 @@ public class BookService {
             log.debug("Коллекция authors для книги ID {} инициализирована перед добавлением"
                     + "автора: {}", bookId, Hibernate.isInitialized(book.getAuthors()));
             Book saved = bookRepository.save(book);
-            addToCache(saved.getId(), saved);
+            cacheUpdates.bookChanged(saved);
+            cacheUpdates.evictBook(saved.getId());
+            cacheUpdates.evictUser(authorId);
             log.info("Пользователь с ID {} успешно добавлен к книге ID {}", authorId, bookId);
         } catch (Exception e) {
             log.error("Ошибка при добавлении пользователя с ID {} к книге ID {}: {}",
@@ -278,6 +282,7 @@ public class BookService {
 
         try {
             Hibernate.initialize(book.getAuthors());
+            cacheUpdates.bookChanged(book);
 
             log.debug("Авторы книги ID {} до удаления: {}",
                     bookId,
@@ -297,24 +302,22 @@ public class BookService {
                     authorId,
                     author.getBooks().stream().map(Book::getId).collect(Collectors.toList()));
 
-            bookCache.remove(bookId);
+            cacheUpdates.evictBook(bookId);
             log.debug("Кэш книги ID {} очищен перед сохранением", bookId);
 
             bookRepository.save(book);
 
-            Map<Long, CacheEntry<User>> userCache = cacheContainer.getUserCache();
-            userCache.remove(authorId);
+            cacheUpdates.evictUser(authorId);
             log.debug("Кэш пользователя ID {} очищен после удаления книги ID {}", authorId, bookId);
 
             List<User> associatedUsers = userRepository.findUsersByBookId(bookId);
             if (book.getAuthors().isEmpty() && associatedUsers.isEmpty()) {
-                bookRepository.deleteById(bookId);
-                bookCache.remove(bookId);
-                log.info("Книга с ID {} удалена, так как не осталось авторов"
+                bookRepository.markDeleted(bookId);
+                cacheUpdates.bookDeleted(bookId);
+                log.info("Книга с ID {} помечена удалённой, так как не осталось авторов "
                         + "или связанных пользователей", bookId);
             } else {
-                Hibernate.initialize(book.getAuthors());
-                addToCache(book.getId(), book);
+                cacheUpdates.evictBook(book.getId());
                 log.info("Автор с ID {} удален из книги с ID {}. Книга сохранена.",
                         authorId, bookId);
             }
@@ -325,17 +328,11 @@ public class BookService {
         }
     }
 
-    @Transactional
     public List<String> getAuthorNamesByBookId(Long bookId) {
         log.debug("Получение авторов для книги с ID {}", bookId);
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new BookNotFoundException("Книга с id "
-                        + bookId + " не найдена"));
-        Hibernate.initialize(book.getAuthors());
-        log.debug("Коллекция authors для книги ID {} инициализирована: {}",
-                bookId, Hibernate.isInitialized(book.getAuthors()));
-        return book.getAuthors().stream()
-                .map(User::getName)
-                .collect(Collectors.toList());
+        if (!bookRepository.existsById(bookId)) {
+            throw new BookNotFoundException("Книга с id " + bookId + " не найдена");
+        }
+        return bookRepository.findAuthorNamesByBookId(bookId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.univer.bookcom.service;
+
+import com.univer.bookcom.cache.CacheContainer;
+import com.univer.bookcom.cache.CacheStats;
+import com.univer.bookcom.cache.ManagedCache;
+import com.univer.bookcom.cache.RemovalCause;
+import com.univer.bookcom.exception.CacheRegionNotFoundException;
+import com.univer.bookcom.exception.InvalidCacheKeyException;
+import com.univer.bookcom.model.dto.response.CacheStatsResponseDto;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CacheAdminService {
+    private static final Logger log = LoggerFactory.getLogger(CacheAdminService.class);
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final CacheContainer cacheContainer;
+
+    public CacheAdminService(CacheContainer cacheContainer) {
+        this.cacheContainer = cacheContainer;
+    }
+
+    public List<CacheStatsResponseDto> getAllStats() {
+        return cacheContainer.getRegions().stream()
+                .map(this::toStatsDto)
+                .toList();
+    }
+
+    public CacheStatsResponseDto getStats(String regionName) {
+        return toStatsDto(findRegion(regionName));
+    }
+
+    public void clearRegion(String regionName) {
+        ManagedCache region = findRegion(regionName);
+        region.clear();
+        log.info("Область кэша {} очищена администратором", regionName);
+    }
+
+    public boolean evictKey(String regionName, String key) {
+        ManagedCache region = findRegion(regionName);
+        boolean evicted;
+        try {
+            evicted = region.evict(key);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCacheKeyException("Некорректный ключ кэша " + regionName + ": " + key);
+        }
+        log.info("Ключ {} {} из области кэша {} администратором",
+                key, evicted ? "удалён" : "не найден", regionName);
+        return evicted;
+    }
+
+    private ManagedCache findRegion(String regionName) {
+        return cacheContainer.findRegion(regionName)
+                .orElseThrow(() -> new CacheRegionNotFoundException(
+                        "Область кэша " + regionName + " не найдена"));
+    }
+
+    private CacheStatsResponseDto toStatsDto(ManagedCache region) {
+        CacheStats stats = region.getStats();
+        long loadCount = stats.getLoadCount() + stats.getLoadFailureCount();
+        CacheStatsResponseDto dto = new CacheStatsResponseDto();
+        dto.setName(region.getName());
+        dto.setSize(region.size());
+        dto.setEstimatedBytes(region.estimatedBytes());
+        dto.setHits(stats.getHitCount());
+        dto.setMisses(stats.getMissCount());
+        dto.setHitRate(stats.getHitRate());
+        dto.setLoads(stats.getLoadCount());
+        dto.setLoadFailures(stats.getLoadFailureCount());
+        dto.setAverageLoadMillis(loadCount == 0
+                ? 0 : stats.getTotalLoadTimeNanos() / NANOS_PER_MILLI / loadCount);
+        dto.setSizeEvictions(stats.getEvictionCount(RemovalCause.SIZE));
+        dto.setExpiredEvictions(stats.getEvictionCount(RemovalCause.EXPIRED));
+        dto.setExplicitEvictions(stats.getEvictionCount(RemovalCause.EXPLICIT));
+        return dto;
+    }
+}
\ No newline at end of file
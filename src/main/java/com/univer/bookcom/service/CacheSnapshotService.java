@@ -0,0 +1,117 @@
+package com.univer.bookcom.service;
+
+import com.univer.bookcom.cache.CacheContainer;
+import com.univer.bookcom.cache.CacheSnapshot;
+import com.univer.bookcom.config.CacheProperties;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Сохраняет горячие ключи кэша при штатной остановке и прогревает по ним кэш после запуска,
+ * чтобы узел выходил на рабочие задержки без долгой серии промахов.
+ */
+@Service
+public class CacheSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshotService.class);
+    private static final String BOOKS = "books";
+    private static final String USERS = "users";
+    private static final int WARM_BATCH_SIZE = 500;
+
+    private final CacheContainer cacheContainer;
+    private final BookService bookService;
+    private final UserService userService;
+    private final CacheProperties.Snapshot properties;
+
+    public CacheSnapshotService(CacheContainer cacheContainer, BookService bookService,
+                                UserService userService, CacheProperties cacheProperties) {
+        this.cacheContainer = cacheContainer;
+        this.bookService = bookService;
+        this.userService = userService;
+        this.properties = cacheProperties.getSnapshot();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void saveSnapshot() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Map<String, List<Long>> keysByRegion = new LinkedHashMap<>();
+        keysByRegion.put(BOOKS, cacheContainer.getBookCache().hotKeys(properties.getMaxKeys()));
+        keysByRegion.put(USERS, cacheContainer.getUserCache().hotKeys(properties.getMaxKeys()));
+        try {
+            CacheSnapshot.write(Paths.get(properties.getPath()), keysByRegion);
+            log.info("Снимок кэша сохранён: книг {}, пользователей {}",
+                    keysByRegion.get(BOOKS).size(), keysByRegion.get(USERS).size());
+        } catch (IOException e) {
+            log.error("Не удалось сохранить снимок кэша: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmFromSnapshot() {
+        Path path = Paths.get(properties.getPath());
+        if (!properties.isEnabled() || !Files.exists(path)) {
+            return;
+        }
+        Map<String, long[]> keysByRegion;
+        try {
+            keysByRegion = CacheSnapshot.read(path);
+        } catch (IOException e) {
+            log.warn("Снимок кэша не прочитан, прогрев пропущен: {}", e.getMessage());
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, properties.getWarmThreads()));
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        tasks.addAll(warm(keysByRegion.get(BOOKS), bookService::preloadBooks, executor));
+        tasks.addAll(warm(keysByRegion.get(USERS), userService::preloadUsers, executor));
+        int keyCount = keysByRegion.values().stream().mapToInt(keys -> keys.length).sum();
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                .whenComplete((result, error) -> {
+                    executor.shutdown();
+                    log.info("Кэш прогрет по снимку за {} мс: запрошено ключей {}",
+                            System.currentTimeMillis() - start, keyCount);
+                });
+    }
+
+    // Ключи загружаются пачками, по одному запросу IN на пачку. Ключи записаны от самых
+    // горячих, поэтому и загружаются в первую очередь.
+    private List<CompletableFuture<Void>> warm(long[] keys, Consumer<List<Long>> loader,
+                                               ExecutorService executor) {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        if (keys == null) {
+            return tasks;
+        }
+        for (int from = 0; from < keys.length; from += WARM_BATCH_SIZE) {
+            List<Long> batch = Arrays.stream(keys, from,
+                    Math.min(keys.length, from + WARM_BATCH_SIZE)).boxed().toList();
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    loader.accept(batch);
+                } catch (RuntimeException e) {
+                    log.debug("Пачка из {} ключей не прогрета: {}", batch.size(),
+                            e.getMessage());
+                }
+            }, executor));
+        }
+        return tasks;
+    }
+}
\ No newline at end of file
@@ -1,26 +1,28 @@
 package com.univer.bookcom.service;
 
-import com.univer.bookcom.cache.CacheContainer;
-import com.univer.bookcom.cache.CacheEntry;
+import com.univer.bookcom.cache.CacheUpdates;
 import com.univer.bookcom.exception.BookNotFoundException;
 import com.univer.bookcom.exception.CommentNotFoundException;
+import com.univer.bookcom.exception.InvalidCursorException;
 import com.univer.bookcom.exception.UserNotFoundException;
 import com.univer.bookcom.model.Book;
 import com.univer.bookcom.model.Comments;
 import com.univer.bookcom.model.User;
 import com.univer.bookcom.model.dto.request.CommentsRequestDto;
 import com.univer.bookcom.model.dto.response.CommentsResponseDto;
+import com.univer.bookcom.model.dto.response.CursorPageDto;
 import com.univer.bookcom.repository.BookRepository;
 import com.univer.bookcom.repository.CommentsRepository;
 import com.univer.bookcom.repository.UserRepository;
 import com.univer.bookcom.service.mapper.CommentsMapper;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -30,22 +32,23 @@ public class CommentsService {
     private static final String BOOK_NOT_FOUND = "Книга с id ";
     private static final String USER_NOT_FOUND = "Пользователь с id ";
     private static final String COMMENT_NOT_FOUND = "Комментарий с id ";
+    private static final String CURSOR_SEPARATOR = "_";
 
     private final CommentsRepository commentsRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
-    private final CacheContainer cacheContainer;
+    private final CacheUpdates cacheUpdates;
     private final CommentsMapper commentsMapper;
 
     public CommentsService(CommentsRepository commentsRepository,
                            BookRepository bookRepository,
                            UserRepository userRepository,
-                           CacheContainer cacheContainer,
+                           CacheUpdates cacheUpdates,
                            CommentsMapper commentsMapper) {
         this.commentsRepository = commentsRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
-        this.cacheContainer = cacheContainer;
+        this.cacheUpdates = cacheUpdates;
         this.commentsMapper = commentsMapper;
     }
 
@@ -64,40 +67,49 @@ public class CommentsService {
         comment.setUser(user);
 
         Comments saved = commentsRepository.save(comment);
-        cacheContainer.getCommentsCache().put(saved.getId(), new CacheEntry<>(saved));
-
-        Hibernate.initialize(book.getComments());
-        Hibernate.initialize(book.getAuthors());
-        cacheContainer.getBookCache().put(book.getId(), new CacheEntry<>(book));
-        log.debug("Кэш книги ID {} обновлен после добавления комментария ID: {}",
-                book.getId(), saved.getId());
-
-        Hibernate.initialize(user.getBooks());
-        Hibernate.initialize(user.getComments());
-        cacheContainer.getUserCache().put(user.getId(), new CacheEntry<>(user));
-        log.debug("Кэш пользователя ID {} обновлен после добавления комментария ID: {}",
+        cacheUpdates.commentCreated(saved.getId());
+        CommentsResponseDto dto = commentsMapper.toResponseDto(saved);
+
+        cacheUpdates.evictUser(user.getId());
+        log.debug("Кэш пользователя ID {} сброшен после добавления комментария ID: {}",
                 user.getId(), saved.getId());
 
         log.debug("Создан новый комментарий с ID: {}", saved.getId());
-        return commentsMapper.toResponseDto(saved);
+        return dto;
     }
 
-    @Transactional
-    public List<CommentsResponseDto> getCommentsByBookIdDto(Long bookId) {
-        List<Comments> comments = commentsRepository.findByBookId(bookId);
+    /**
+     * Страница комментариев к книге от новых к старым. {@code before} - курсор из
+     * предыдущей страницы, {@code null} для первой.
+     */
+    public CursorPageDto<CommentsResponseDto> getCommentsByBookIdDto(Long bookId, String before,
+                                                                     int limit) {
+        Limit rows = Limit.of(limit + 1);
+        List<CommentsResponseDto> comments;
+        if (before == null) {
+            comments = commentsRepository.findBookFeed(bookId, rows);
+        } else {
+            FeedCursor cursor = parseCursor(before);
+            comments = commentsRepository.findBookFeedBefore(bookId, cursor.createdAt(),
+                    cursor.id(), rows);
+        }
         log.debug("Найдено {} комментариев для книги с ID: {}", comments.size(), bookId);
-        return comments.stream()
-                .map(commentsMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return CursorPageDto.of(comments, limit, CommentsService::formatCursor);
     }
 
-    @Transactional
-    public List<CommentsResponseDto> getCommentsByUserIdDto(Long userId) {
-        List<Comments> comments = commentsRepository.findByUserId(userId);
+    public CursorPageDto<CommentsResponseDto> getCommentsByUserIdDto(Long userId, String before,
+                                                                     int limit) {
+        Limit rows = Limit.of(limit + 1);
+        List<CommentsResponseDto> comments;
+        if (before == null) {
+            comments = commentsRepository.findUserFeed(userId, rows);
+        } else {
+            FeedCursor cursor = parseCursor(before);
+            comments = commentsRepository.findUserFeedBefore(userId, cursor.createdAt(),
+                    cursor.id(), rows);
+        }
         log.debug("Найдено {} комментариев пользователя с ID: {}", comments.size(), userId);
-        return comments.stream()
-                .map(commentsMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return CursorPageDto.of(comments, limit, CommentsService::formatCursor);
     }
 
     @Transactional
@@ -114,9 +126,11 @@ public class CommentsService {
 
         comment.setText(commentDto.getText());
         Comments updated = commentsRepository.save(comment);
-        cacheContainer.getCommentsCache().put(commentId, new CacheEntry<>(updated));
+        CommentsResponseDto dto = commentsMapper.toResponseDto(updated);
+        cacheUpdates.evictComment(commentId);
+        cacheUpdates.evictUser(updated.getUser().getId());
         log.debug("Обновлен комментарий с ID: {}", commentId);
-        return commentsMapper.toResponseDto(updated);
+        return dto;
     }
 
     @Transactional
@@ -156,21 +170,11 @@ public class CommentsService {
             throw new RuntimeException("Не удалось удалить комментарий ID: " + commentId);
         }
 
-        cacheContainer.getCommentsCache().remove(commentId);
-
-        if (book != null) {
-            Hibernate.initialize(book.getComments());
-            Hibernate.initialize(book.getAuthors());
-            cacheContainer.getBookCache().put(book.getId(), new CacheEntry<>(book));
-            log.debug("Кэш книги ID {} обновлен после удаления комментария ID {}",
-                    book.getId(), commentId);
-        }
+        cacheUpdates.commentDeleted(commentId);
 
         if (user != null) {
-            Hibernate.initialize(user.getBooks());
-            Hibernate.initialize(user.getComments());
-            cacheContainer.getUserCache().put(user.getId(), new CacheEntry<>(user));
-            log.debug("Кэш пользователя ID {} обновлен после удаления комментария ID {}",
+            cacheUpdates.evictUser(user.getId());
+            log.debug("Кэш пользователя ID {} сброшен после удаления комментария ID {}",
                     user.getId(), commentId);
         }
 
@@ -191,8 +195,27 @@ public class CommentsService {
         comment.setUser(user);
 
         Comments saved = commentsRepository.save(comment);
-        cacheContainer.getCommentsCache().put(saved.getId(), new CacheEntry<>(saved));
+        cacheUpdates.commentCreated(saved.getId());
+        cacheUpdates.evictUser(userId);
         log.debug("Создан новый комментарий с ID: {}", saved.getId());
         return saved;
     }
+
+    // Курсор ленты - время создания и ID последнего комментария страницы.
+    private static String formatCursor(CommentsResponseDto comment) {
+        return comment.getCreatedAt() + CURSOR_SEPARATOR + comment.getId();
+    }
+
+    private static FeedCursor parseCursor(String cursor) {
+        int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+        try {
+            return new FeedCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                    Long.valueOf(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new InvalidCursorException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    private record FeedCursor(LocalDateTime createdAt, Long id) {
+    }
 }
\ No newline at end of file
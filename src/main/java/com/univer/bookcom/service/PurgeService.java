@@ -0,0 +1,161 @@
+package com.univer.bookcom.service;
+
+import com.univer.bookcom.cache.CacheUpdates;
+import com.univer.bookcom.config.PurgeProperties;
+import com.univer.bookcom.model.dto.response.PurgeStatusDto;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Фоновая очистка пользователей и книг, помеченных удалёнными. Зависимые строки удаляются
+ * порциями, каждая в своей короткой транзакции и с паузой между порциями, поэтому
+ * блокировки на общих таблицах держатся недолго. Запросы нативные: помеченные строки
+ * скрыты от Hibernate ограничением {@code deleted = false}.
+ */
+@Service
+public class PurgeService {
+    private static final Logger log = LoggerFactory.getLogger(PurgeService.class);
+
+    private static final String PENDING_USERS =
+            "SELECT id FROM users WHERE deleted ORDER BY id LIMIT ?";
+    private static final String PENDING_BOOKS =
+            "SELECT id FROM books WHERE deleted ORDER BY id LIMIT ?";
+    private static final String COUNT_PENDING = "SELECT "
+            + "(SELECT count(*) FROM users WHERE deleted), "
+            + "(SELECT count(*) FROM books WHERE deleted)";
+    private static final String DELETE_USER_COMMENTS = "DELETE FROM comments WHERE id IN "
+            + "(SELECT id FROM comments WHERE user_id = ? LIMIT ?) RETURNING id";
+    private static final String DELETE_BOOK_COMMENTS = "DELETE FROM comments WHERE id IN "
+            + "(SELECT id FROM comments WHERE book_id = ? LIMIT ?) RETURNING id";
+    // Книги, где удаляемый пользователь - единственный автор, помечаются удалёнными
+    // и очищаются следом как обычные удалённые книги.
+    private static final String MARK_ORPHANED_BOOKS = "UPDATE books SET deleted = true "
+            + "WHERE id IN (SELECT bu.book_id FROM book_user bu "
+            + "JOIN books b ON b.id = bu.book_id AND NOT b.deleted "
+            + "WHERE bu.user_id = ? AND NOT EXISTS (SELECT 1 FROM book_user o "
+            + "WHERE o.book_id = bu.book_id AND o.user_id <> bu.user_id) LIMIT ?) "
+            + "RETURNING id";
+    private static final String DELETE_USER_LINKS = "DELETE FROM book_user "
+            + "WHERE (book_id, user_id) IN (SELECT book_id, user_id FROM book_user "
+            + "WHERE user_id = ? LIMIT ?) RETURNING book_id";
+    private static final String DELETE_BOOK_LINKS = "DELETE FROM book_user "
+            + "WHERE (book_id, user_id) IN (SELECT book_id, user_id FROM book_user "
+            + "WHERE book_id = ? LIMIT ?) RETURNING user_id";
+    private static final String DELETE_USER = "DELETE FROM users WHERE id = ? AND deleted";
+    private static final String DELETE_BOOK = "DELETE FROM books WHERE id = ? AND deleted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheUpdates cacheUpdates;
+    private final PurgeProperties properties;
+    private final AtomicLong purgedComments = new AtomicLong();
+    private final AtomicLong purgedLinks = new AtomicLong();
+    private final AtomicLong purgedBooks = new AtomicLong();
+    private final AtomicLong purgedUsers = new AtomicLong();
+    private volatile String current;
+    private volatile LocalDateTime lastRunAt;
+
+    public PurgeService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                        CacheUpdates cacheUpdates, PurgeProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheUpdates = cacheUpdates;
+        this.properties = properties;
+    }
+
+    // Пользователи очищаются раньше книг: их книги без других авторов попадают
+    // в очередь книг и очищаются в том же проходе.
+    @Scheduled(fixedDelayString = "${purge.interval}", initialDelayString = "${purge.interval}")
+    public void purgeDeleted() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            for (Long id : pending(PENDING_USERS)) {
+                purgeUser(id);
+            }
+            for (Long id : pending(PENDING_BOOKS)) {
+                purgeBook(id);
+            }
+        } catch (DataAccessException e) {
+            log.error("Ошибка фоновой очистки удалённых записей: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            current = null;
+            lastRunAt = LocalDateTime.now();
+        }
+    }
+
+    public PurgeStatusDto getStatus() {
+        PurgeStatusDto status = new PurgeStatusDto();
+        jdbcTemplate.query(COUNT_PENDING, rs -> {
+            status.setPendingUsers(rs.getLong(1));
+            status.setPendingBooks(rs.getLong(2));
+        });
+        status.setCurrent(current);
+        status.setPurgedComments(purgedComments.get());
+        status.setPurgedLinks(purgedLinks.get());
+        status.setPurgedBooks(purgedBooks.get());
+        status.setPurgedUsers(purgedUsers.get());
+        status.setLastRunAt(lastRunAt);
+        return status;
+    }
+
+    private void purgeUser(Long id) throws InterruptedException {
+        current = "user:" + id;
+        long comments = inChunks(DELETE_USER_COMMENTS, id, ids -> {
+            cacheUpdates.commentsDeleted(ids);
+            purgedComments.addAndGet(ids.size());
+        });
+        long orphaned = inChunks(MARK_ORPHANED_BOOKS, id, cacheUpdates::booksDeleted);
+        long links = inChunks(DELETE_USER_LINKS, id, ids -> purgedLinks.addAndGet(ids.size()));
+        purgedUsers.addAndGet(jdbcTemplate.update(DELETE_USER, id));
+        log.info("Пользователь с ID {} очищен: комментариев {}, связей {}, книг без авторов {}",
+                id, comments, links, orphaned);
+    }
+
+    private void purgeBook(Long id) throws InterruptedException {
+        current = "book:" + id;
+        long comments = inChunks(DELETE_BOOK_COMMENTS, id, ids -> {
+            cacheUpdates.commentsDeleted(ids);
+            purgedComments.addAndGet(ids.size());
+        });
+        long links = inChunks(DELETE_BOOK_LINKS, id, ids -> purgedLinks.addAndGet(ids.size()));
+        purgedBooks.addAndGet(jdbcTemplate.update(DELETE_BOOK, id));
+        log.info("Книга с ID {} очищена: комментариев {}, связей {}", id, comments, links);
+    }
+
+    // Выполняет запрос порциями до первой неполной порции. Обработчик порции вызывается
+    // внутри её транзакции, поэтому изменения кэша применяются только после фиксации.
+    private long inChunks(String sql, Long id, Consumer<List<Long>> onChunk)
+            throws InterruptedException {
+        int chunkSize = properties.getChunkSize();
+        long total = 0;
+        while (true) {
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> chunk = jdbcTemplate.queryForList(sql, Long.class, id, chunkSize);
+                onChunk.accept(chunk);
+                return chunk;
+            });
+            total += ids.size();
+            if (ids.size() < chunkSize) {
+                return total;
+            }
+            Thread.sleep(properties.getChunkPause().toMillis());
+        }
+    }
+
+    private List<Long> pending(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class, properties.getEntitiesPerRun());
+    }
+}
\ No newline at end of file
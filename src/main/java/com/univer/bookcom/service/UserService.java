@@ -1,16 +1,20 @@
 package com.univer.bookcom.service;
 
+import com.univer.bookcom.cache.BookSearchCache;
 import com.univer.bookcom.cache.CacheContainer;
-import com.univer.bookcom.cache.CacheEntry;
+import com.univer.bookcom.cache.CacheRegion;
+import com.univer.bookcom.cache.CacheUpdates;
 import com.univer.bookcom.exception.BookNotFoundException;
-import com.univer.bookcom.exception.InvalidBookDataException;
+import com.univer.bookcom.exception.UserAlreadyExistsException;
 import com.univer.bookcom.exception.UserNotFoundException;
 import com.univer.bookcom.model.Book;
 import com.univer.bookcom.model.BookStatus;
+import com.univer.bookcom.model.Comments;
 import com.univer.bookcom.model.User;
 import com.univer.bookcom.model.dto.request.BookRequestDto;
 import com.univer.bookcom.model.dto.request.UserRequestDto;
-import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.model.dto.response.BookImportResultDto;
+import com.univer.bookcom.model.dto.response.CursorPageDto;
 import com.univer.bookcom.model.dto.response.UserResponseDto;
 import com.univer.bookcom.repository.BookRepository;
 import com.univer.bookcom.repository.CommentsRepository;
@@ -18,15 +22,25 @@ import com.univer.bookcom.repository.UserRepository;
 import com.univer.bookcom.service.mapper.BookMapper;
 import com.univer.bookcom.service.mapper.UserMapper;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -38,116 +52,61 @@ public class UserService {
     private final CommentsRepository commentsRepository;
     private final BookRepository bookRepository;
     private final CacheContainer cacheContainer;
+    private final CacheUpdates cacheUpdates;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
+    private final Validator validator;
 
     public UserService(UserRepository userRepository,
                        CommentsRepository commentsRepository,
                        BookRepository bookRepository,
                        CacheContainer cacheContainer,
+                       CacheUpdates cacheUpdates,
                        UserMapper userMapper,
-                       BookMapper bookMapper) {
+                       BookMapper bookMapper,
+                       Validator validator) {
         this.userRepository = userRepository;
         this.commentsRepository = commentsRepository;
         this.bookRepository = bookRepository;
         this.cacheContainer = cacheContainer;
+        this.cacheUpdates = cacheUpdates;
         this.userMapper = userMapper;
         this.bookMapper = bookMapper;
+        this.validator = validator;
     }
 
-    @Transactional
-    public List<UserResponseDto> getAllUsersDto() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toResponseDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<UserResponseDto> getAllUsersDto(long after, int limit) {
+        List<UserResponseDto> rows = userRepository.findDtosAfter(after, Limit.of(limit + 1));
+        return CursorPageDto.of(rows, limit, user -> String.valueOf(user.getId()));
     }
 
-    @Transactional
     public Optional<UserResponseDto> getUserByIdDto(Long id) {
-        Map<Long, CacheEntry<User>> cache = cacheContainer.getUserCache();
-        if (cache.containsKey(id)) {
-            log.debug("Пользователь найден в кэше: id = {}", id);
-            User user = cache.get(id).getValue();
-            Hibernate.initialize(user.getBooks());
-            Hibernate.initialize(user.getComments());
-
-            List<Long> bookIdsBefore = user.getBooks().stream()
-                    .map(Book::getId)
-                    .collect(Collectors.toList());
-            user.getBooks().removeIf(book -> !bookRepository.existsById(book.getId()));
-            List<Long> bookIdsAfter = user.getBooks().stream()
-                    .map(Book::getId)
-                    .collect(Collectors.toList());
-            if (!bookIdsBefore.equals(bookIdsAfter)) {
-                userRepository.save(user);
-                log.debug("Устаревшие книги удалены из коллекции books"
-                                + " пользователя ID {}. Было: {}, стало: {}",
-                        id, bookIdsBefore, bookIdsAfter);
-            }
+        return Optional.ofNullable(cacheContainer.getUserCache().get(id, this::loadUserDto));
+    }
 
-            log.debug("Коллекция books для пользователя ID {} инициализирована, содержит {} книг",
-                    id, user.getBooks().size());
-            log.debug("Коллекция comments для пользователя ID {} инициализирована: {}",
-                    id, Hibernate.isInitialized(user.getComments()));
+    private UserResponseDto loadUserDto(Long id) {
+        log.debug("Пользователь не найден в кэше, загрузка из БД: id = {}", id);
+        return userRepository.findDtoById(id).orElse(null);
+    }
 
-            cache.put(id, new CacheEntry<>(user));
-            return Optional.of(userMapper.toResponseDto(user));
-        }
-        return userRepository.findById(id)
-                .map(user -> {
-                    Hibernate.initialize(user.getBooks());
-                    Hibernate.initialize(user.getComments());
-
-                    List<Long> bookIdsBefore = user.getBooks().stream()
-                            .map(Book::getId)
-                            .collect(Collectors.toList());
-                    user.getBooks().removeIf(book -> !bookRepository.existsById(book.getId()));
-                    List<Long> bookIdsAfter = user.getBooks().stream()
-                            .map(Book::getId)
-                            .collect(Collectors.toList());
-                    if (!bookIdsBefore.equals(bookIdsAfter)) {
-                        userRepository.save(user);
-                        log.debug("Устаревшие книги удалены из коллекции books"
-                                        + "пользователя ID {}. Было: {}, стало: {}",
-                                id, bookIdsBefore, bookIdsAfter);
-                    }
-
-                    log.debug("Коллекция books для пользователя ID {} из БД"
-                                    + "инициализирована, содержит {} книг",
-                            id, user.getBooks().size());
-                    log.debug("Коллекция comments для пользователя ID {}"
-                                    + "из БД инициализирована: {}",
-                            id, Hibernate.isInitialized(user.getComments()));
-
-                    cache.put(user.getId(), new CacheEntry<>(user));
-                    return userMapper.toResponseDto(user);
-                });
+    // Прогрев кэша: отсутствующие в нём пользователи читаются одним запросом.
+    public void preloadUsers(Collection<Long> ids) {
+        cacheContainer.getUserCache().loadAll(ids, missing -> userRepository
+                .findDtosByIds(missing).stream()
+                .collect(Collectors.toMap(UserResponseDto::getId, Function.identity())));
     }
 
     @Transactional
     public Optional<User> getUserById(Long id) {
-        Map<Long, CacheEntry<User>> cache = cacheContainer.getUserCache();
-        if (cache.containsKey(id)) {
-            log.debug("Пользователь найден в кэше: id = {}", id);
-            User user = cache.get(id).getValue();
-            Hibernate.initialize(user.getBooks());
-            Hibernate.initialize(user.getComments());
-
-            user.getBooks().removeIf(book -> !bookRepository.existsById(book.getId()));
-            user.getComments().removeIf(comment -> !commentsRepository.existsById(comment.getId()));
-            cache.put(id, new CacheEntry<>(user));
-            log.debug("Коллекция comments для пользователя ID {} инициализирована: {}",
-                    id, Hibernate.isInitialized(user.getComments()));
-            return Optional.of(user);
-        }
         Optional<User> user = userRepository.findById(id);
         user.ifPresent(u -> {
             Hibernate.initialize(u.getBooks());
             Hibernate.initialize(u.getComments());
 
-            u.getBooks().removeIf(book -> !bookRepository.existsById(book.getId()));
-            u.getComments().removeIf(comment -> !commentsRepository.existsById(comment.getId()));
-            cache.put(u.getId(), new CacheEntry<>(u));
+            Set<Long> existingBooks = existingBookIds(u.getBooks());
+            Set<Long> existingComments = existingCommentIds(u.getComments());
+            u.getBooks().removeIf(book -> !existingBooks.contains(book.getId()));
+            u.getComments().removeIf(comment -> !existingComments.contains(comment.getId()));
             log.debug("Коллекция comments для пользователя ID {} из БД инициализирована: {}",
                     id, Hibernate.isInitialized(u.getComments()));
         });
@@ -156,106 +115,85 @@ public class UserService {
 
     @Transactional
     public UserResponseDto saveUserDto(UserRequestDto userDto) {
+        checkEmailAvailable(userDto.getEmail(), null);
         User user = userMapper.toEntity(userDto);
         User saved = userRepository.save(user);
+        cacheUpdates.userCreated(saved.getId());
 
         Hibernate.initialize(saved.getBooks());
         Hibernate.initialize(saved.getComments());
 
-        cacheContainer.getUserCache().put(saved.getId(), new CacheEntry<>(saved));
+        UserResponseDto dto = toDtoAndEvict(saved);
         log.debug("Коллекция comments для пользователя ID {} инициализирована: {}",
                 saved.getId(), Hibernate.isInitialized(saved.getComments()));
-        return userMapper.toResponseDto(saved);
+        return dto;
     }
 
     @Transactional
     public UserResponseDto updateUserDto(Long id, UserRequestDto updatedUserDto) {
         User existing = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND, id)));
+        checkEmailAvailable(updatedUserDto.getEmail(), id);
+        Hibernate.initialize(existing.getBooks());
+        cacheUpdates.authorChanged(existing);
         existing.setName(updatedUserDto.getName());
         existing.setEmail(updatedUserDto.getEmail());
         existing.setPassword(updatedUserDto.getPassword());
         User updated = userRepository.save(existing);
         Hibernate.initialize(updated.getBooks());
         Hibernate.initialize(updated.getComments());
-        cacheContainer.getUserCache().put(id, new CacheEntry<>(updated));
+        updated.getBooks().forEach(book -> cacheUpdates.evictBook(book.getId()));
+        cacheUpdates.authorChanged(updated);
+        updated.getComments().forEach(comment ->
+                cacheUpdates.evictComment(comment.getId()));
+        UserResponseDto dto = toDtoAndEvict(updated);
         log.debug("Коллекция comments для пользователя ID {} инициализирована: {}",
                 id, Hibernate.isInitialized(updated.getComments()));
-        return userMapper.toResponseDto(updated);
+        return dto;
+    }
+
+    // Удалённые пользователи скрыты от findByEmail и не занимают email: уникальность
+    // обеспечивает частичный индекс idx_users_email_active.
+    private void checkEmailAvailable(String email, Long userId) {
+        userRepository.findByEmail(email)
+                .filter(owner -> !owner.getId().equals(userId))
+                .ifPresent(owner -> {
+                    throw new UserAlreadyExistsException(
+                            "Пользователь с email " + email + " уже существует");
+                });
     }
 
     @Transactional
     public boolean existsById(Long id) {
-        Map<Long, CacheEntry<User>> cache = cacheContainer.getUserCache();
-        return cache.containsKey(id) || userRepository.existsById(id);
+        CacheRegion<UserResponseDto> cache = cacheContainer.getUserCache();
+        return cache.containsKey(id)
+                || cacheContainer.getUserIds().exists(id, userRepository::existsById,
+                        cacheUpdates::idChecked);
     }
 
+    // Пользователь только помечается удалённым и сразу пропадает из всех запросов;
+    // комментарии, связи с книгами и книги без других авторов очищает PurgeService.
     @Transactional
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(String.format(USER_NOT_FOUND, id)));
 
-        Hibernate.initialize(user.getBooks());
-        Hibernate.initialize(user.getComments());
-
-        log.debug("Кэш пользователей перед удалением ID {}: {}",
-                id, cacheContainer.getUserCache().keySet());
-        log.debug("Кэш книг перед удалением ID {}: {}", id, cacheContainer.getBookCache().keySet());
-
-        commentsRepository.deleteAll(user.getComments());
+        List<Long> bookIds = bookRepository.findIdsByAuthorId(id);
+        userRepository.markDeleted(id);
 
-        List<Book> booksToProcess = new ArrayList<>(user.getBooks());
-        for (Book book : booksToProcess) {
-            Hibernate.initialize(book.getAuthors());
-            log.debug("Книга ID {}: текущие авторы={}",
-                    book.getId(),
-                    book.getAuthors().stream().map(User::getId).collect(Collectors.toList()));
-
-            book.getAuthors().remove(user);
-            user.getBooks().remove(book);
-            bookRepository.save(book);
-
-            List<User> associatedUsers = userRepository.findUsersByBookId(book.getId());
-            boolean hasOtherAuthors = !book.getAuthors().isEmpty();
-            boolean hasOtherUsers = associatedUsers.stream().anyMatch(u -> !u.getId().equals(id));
-
-            log.debug("Книга ID {}: hasOtherAuthors={}, hasOtherUsers={}, associatedUsers={}",
-                    book.getId(), hasOtherAuthors, hasOtherUsers,
-                    associatedUsers.stream().map(User::getId).collect(Collectors.toList()));
-
-            if (hasOtherAuthors || hasOtherUsers) {
-                log.info("Книга с ID {} сохранена: есть другие авторы или связанные пользователи",
-                        book.getId());
-                bookRepository.save(book);
-                cacheContainer.getBookCache().remove(book.getId());
-            } else {
-                log.info("Книга с ID {} удалена: нет других авторов и связанных пользователей",
-                        book.getId());
-                bookRepository.delete(book);
-                cacheContainer.getBookCache().remove(book.getId());
-            }
-        }
-
-        userRepository.deleteBookUserAssociations(id);
-        userRepository.delete(user);
-        cacheContainer.getUserCache().remove(id);
-
-        log.debug("Кэш пользователей после удаления ID {}: {}",
-                id, cacheContainer.getUserCache().keySet());
-        log.debug("Кэш книг после удаления ID {}: {}", id, cacheContainer.getBookCache().keySet());
+        cacheUpdates.invalidateSearch(BookSearchCache.tagsOfAuthor(user.getName(), bookIds));
+        cacheUpdates.evictBooks(bookIds);
+        cacheUpdates.userDeleted(id);
+        log.info("Пользователь с ID {} помечен удалённым, книг затронуто: {}", id, bookIds.size());
     }
 
-    @Transactional
-    public List<UserResponseDto> findUsersByNameDto(String name) {
-        return userRepository.findByNameContaining(name).stream()
-                .map(userMapper::toResponseDto)
-                .collect(Collectors.toList());
+    public List<UserResponseDto> findUsersByNameDto(String name, int limit) {
+        String pattern = "%" + name.replaceAll("[\\\\%_]", "\\\\$0") + "%";
+        return userRepository.searchDtosByName(pattern, name, Limit.of(limit));
     }
 
-    @Transactional
     public Optional<UserResponseDto> findUserByEmailDto(String email) {
-        return userRepository.findByEmail(email)
-                .map(userMapper::toResponseDto);
+        return userRepository.findDtoByEmail(email);
     }
 
     @Transactional
@@ -270,12 +208,15 @@ public class UserService {
             book = existingBook.get();
         } else {
             book = bookRepository.save(book);
+            cacheUpdates.bookCreated(book.getId());
         }
         user.addBook(book);
         User updated = userRepository.save(user);
         Hibernate.initialize(updated.getBooks());
         Hibernate.initialize(updated.getComments());
-        cacheContainer.getUserCache().put(updated.getId(), new CacheEntry<>(updated));
+        cacheUpdates.evictBook(book.getId());
+        cacheUpdates.bookChanged(book);
+        cacheUpdates.evictUser(updated.getId());
         log.debug("Коллекция comments для пользователя ID {} инициализирована: {}",
                 updated.getId(), Hibernate.isInitialized(updated.getComments()));
     }
@@ -298,21 +239,23 @@ public class UserService {
 
         user.removeBook(book);
         User updatedUser = userRepository.save(user);
+        cacheUpdates.invalidateSearch(List.of(BookSearchCache.idTag(bookId),
+                BookSearchCache.byAuthor(user.getName())));
 
         boolean deleteBook = book.getAuthors().isEmpty();
         if (deleteBook) {
-            bookRepository.delete(book);
-            cacheContainer.getBookCache().remove(bookId);
-            log.info("Книга ID {} удалена, так как не осталось авторов", bookId);
+            bookRepository.save(book);
+            bookRepository.markDeleted(bookId);
+            cacheUpdates.bookDeleted(bookId);
+            log.info("Книга ID {} помечена удалённой, так как не осталось авторов", bookId);
         } else {
-            Book updatedBook = bookRepository.save(book);
-            Hibernate.initialize(updatedBook.getAuthors());
-            Hibernate.initialize(updatedBook.getComments());
-            cacheContainer.getBookCache().put(bookId, new CacheEntry<>(updatedBook));
-            log.debug("Книга ID {} сохранена, кэш обновлён", bookId);
+            bookRepository.save(book);
+            cacheUpdates.evictBook(bookId);
+            log.debug("Книга ID {} сохранена, кэш сброшен", bookId);
         }
 
-        updatedUser.getBooks().removeIf(b -> !bookRepository.existsById(b.getId()));
+        Set<Long> existingBooks = existingBookIds(updatedUser.getBooks());
+        updatedUser.getBooks().removeIf(b -> !existingBooks.contains(b.getId()));
 
         Hibernate.initialize(updatedUser.getBooks());
         Hibernate.initialize(updatedUser.getComments());
@@ -320,26 +263,26 @@ public class UserService {
         log.debug("Книги пользователя ID {} после удаления: {}", userId,
                 updatedUser.getBooks().stream().map(Book::getId).collect(Collectors.toList()));
 
-        cacheContainer.getUserCache().put(userId, new CacheEntry<>(updatedUser));
+        cacheUpdates.evictUser(userId);
         log.info("Пользователь ID {} обновлён, книга ID {} удалена из списка", userId, bookId);
     }
 
-    @Transactional
     public List<UserResponseDto> findUsersByBookTitleDto(String title) {
-        return userRepository.findUsersByBookTitle(title).stream()
-                .map(userMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return userRepository.findDtosByBookTitle(title);
     }
 
-    @Transactional
     public List<UserResponseDto> findAuthorsByBookTitleDto(String title) {
-        return userRepository.findAuthorsByBookTitle(title).stream()
-                .map(userMapper::toResponseDto)
-                .collect(Collectors.toList());
+        return userRepository.findDtosByBookTitle(title);
     }
 
+    /**
+     * Добавляет пользователю пакет книг. Дубликаты ищутся одним запросом по названиям,
+     * новые книги и связи book_user вставляются пакетами JDBC при фиксации транзакции.
+     * Для каждой книги из запроса возвращается свой результат.
+     */
     @Transactional
-    public List<BookResponseDto> addBooksToUserBulkDto(Long userId, List<BookRequestDto> bookDtos) {
+    public List<BookImportResultDto> addBooksToUserBulkDto(Long userId,
+                                                           List<BookRequestDto> bookDtos) {
         log.debug("Начало добавления книг пользователю с ID: {}", userId);
         if (bookDtos == null || bookDtos.isEmpty()) {
             return Collections.emptyList();
@@ -349,65 +292,87 @@ public class UserService {
                     log.warn("Пользователь с ID {} не найден", userId);
                     return new UserNotFoundException(String.format(USER_NOT_FOUND, userId));
                 });
-        List<BookResponseDto> added = new ArrayList<>();
-        for (BookRequestDto bookDto : bookDtos) {
-            log.debug("Обработка книги: {}", bookDto.getTitle());
-            if (bookDto.getTitle() == null || bookDto.getTitle().trim().isEmpty()) {
-                throw new InvalidBookDataException("Название книги не может быть пустым");
-            }
-            if (bookDto.getCountChapters() < 0) {
-                throw new InvalidBookDataException("Количество глав не может быть отрицательным");
-            }
-            if (bookDto.getPublicYear() < 0) {
-                throw new InvalidBookDataException("Год публикации не может быть отрицательным");
-            }
-            if (bookDto.getBookStatus() == null) {
-                throw new InvalidBookDataException("Статус книги не может быть null");
+        Hibernate.initialize(user.getBooks());
+        Set<BookKey> owned = user.getBooks().stream()
+                .map(BookKey::of)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<BookKey, Book> existing = findExistingBooks(bookDtos);
+
+        List<BookImportResultDto> results = new ArrayList<>(bookDtos.size());
+        int created = 0;
+        for (int i = 0; i < bookDtos.size(); i++) {
+            BookRequestDto bookDto = bookDtos.get(i);
+            BookImportResultDto result = new BookImportResultDto();
+            result.setIndex(i);
+            result.setTitle(bookDto.getTitle());
+            results.add(result);
+
+            String error = validateBulkBook(bookDto);
+            if (error != null) {
+                result.setStatus(BookImportResultDto.Status.INVALID);
+                result.setMessage(error);
+                continue;
             }
             Book book = bookMapper.toEntity(bookDto);
-            boolean isDuplicate = false;
-            for (Book existingBook : user.getBooks()) {
-                if (book.getTitle().equals(existingBook.getTitle())
-                        && book.getCountChapters() == existingBook.getCountChapters()
-                        && book.getPublicYear() == existingBook.getPublicYear()
-                        && book.getBookStatus() == existingBook.getBookStatus()) {
-                    isDuplicate = true;
-                    log.info("Пропущен дубликат книги (у пользователя): {}", book.getTitle());
-                    break;
-                }
-            }
-            if (isDuplicate) {
+            BookKey key = BookKey.of(book);
+            Book bookInDb = existing.get(key);
+            if (owned.contains(key) || bookInDb != null && bookInDb.getAuthors().contains(user)) {
+                log.info("Пропущен дубликат книги (у пользователя): {}", book.getTitle());
+                result.setStatus(BookImportResultDto.Status.ALREADY_OWNED);
                 continue;
             }
-            Optional<Book> bookInDbOpt = bookRepository
-                    .findByTitleAndCountChaptersAndPublicYearAndStatus(book.getTitle(),
-                            book.getCountChapters(), book.getPublicYear(), book.getBookStatus());
-            if (bookInDbOpt.isPresent()) {
-                Book bookInDb = bookInDbOpt.get();
-                if (!bookInDb.getAuthors().contains(user)) {
-                    log.info("Пропущен дубликат книги (у других авторов): {}", book.getTitle());
-                    continue;
-                } else {
-                    log.debug("Книга с таким названием уже есть у пользователя,"
-                            + "добавляем автора: {}", book.getTitle());
-                    book = bookInDb;
-                }
-            } else {
-                log.debug("Сохраняем новую книгу в базу: {}", book.getTitle());
-                book = bookRepository.save(book);
+            if (bookInDb != null) {
+                log.info("Пропущен дубликат книги (у других авторов): {}", book.getTitle());
+                result.setStatus(BookImportResultDto.Status.OWNED_BY_OTHER_AUTHORS);
+                continue;
             }
-            book.addAuthor(user);
-            added.add(bookMapper.toResponseDto(book));
-            log.info("Книга успешно добавлена: {}", book.getTitle());
+            // Книга новая, поэтому связь добавляется без поиска по спискам через addAuthor.
+            book.getAuthors().add(user);
+            user.getBooks().add(book);
+            bookRepository.save(book);
+            owned.add(key);
+            cacheUpdates.bookCreated(book.getId());
+            cacheUpdates.bookChanged(book);
+            result.setStatus(BookImportResultDto.Status.CREATED);
+            result.setBook(bookMapper.toResponseDto(book));
+            created++;
         }
-        userRepository.save(user);
-        Hibernate.initialize(user.getBooks());
-        Hibernate.initialize(user.getComments());
-        cacheContainer.getUserCache().put(user.getId(), new CacheEntry<>(user));
-        log.debug("Коллекция comments для пользователя ID {} инициализирована: {}",
-                user.getId(), Hibernate.isInitialized(user.getComments()));
-        log.debug("Завершено добавление книг пользователю с ID: {}", userId);
-        return added;
+        cacheUpdates.evictUser(userId);
+        log.info("Пользователю с ID {} добавлено книг: {} из {}",
+                userId, created, bookDtos.size());
+        return results;
+    }
+
+    private Map<BookKey, Book> findExistingBooks(List<BookRequestDto> bookDtos) {
+        Set<String> titles = bookDtos.stream()
+                .map(BookRequestDto::getTitle)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<BookKey, Book> existing = new HashMap<>();
+        if (!titles.isEmpty()) {
+            bookRepository.findWithAuthorsByTitleIn(titles)
+                    .forEach(book -> existing.putIfAbsent(BookKey.of(book), book));
+        }
+        return existing;
+    }
+
+    // Те же ограничения, что проверяет @Valid в контроллере для одиночной книги: строка,
+    // нарушающая их, отклоняется здесь, а не при сохранении всего пакета.
+    private String validateBulkBook(BookRequestDto bookDto) {
+        Set<ConstraintViolation<BookRequestDto>> violations = validator.validate(bookDto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath()
+                            .toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            BookStatus.valueOf(bookDto.getBookStatus());
+        } catch (IllegalArgumentException e) {
+            return "Недопустимый статус книги: " + bookDto.getBookStatus();
+        }
+        return null;
     }
 
     @Transactional
@@ -421,18 +386,36 @@ public class UserService {
                 new UserNotFoundException(String.format(USER_NOT_FOUND, userId)));
         user.addBook(book);
         User updated = userRepository.save(user);
-        cacheContainer.getUserCache().put(updated.getId(), new CacheEntry<>(updated));
+        cacheUpdates.evictUser(updated.getId());
+        cacheUpdates.evictBook(book.getId());
+        cacheUpdates.bookChanged(book);
     }
 
-    @Transactional
     public long getPublishedBooksCountByUserId(Long userId) {
         log.debug("Получение количества книг для пользователя с ID {}", userId);
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new UserNotFoundException(String.format(USER_NOT_FOUND, userId)));
-        Hibernate.initialize(user.getBooks());
-        log.debug("Коллекция books для пользователя ID {} инициализирована: {}",
-                userId, Hibernate.isInitialized(user.getBooks()));
-        return user.getBooks().size();
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException(String.format(USER_NOT_FOUND, userId));
+        }
+        return bookRepository.countByAuthorId(userId);
+    }
+
+    // Проверка существования всей коллекции одним запросом вместо запроса на каждый элемент.
+    private Set<Long> existingBookIds(List<Book> books) {
+        return cacheContainer.getBookIds().existing(
+                books.stream().map(Book::getId).toList(), bookRepository::findExistingIds,
+                cacheUpdates::idChecked);
+    }
+
+    private Set<Long> existingCommentIds(List<Comments> comments) {
+        return cacheContainer.getCommentIds().existing(
+                comments.stream().map(Comments::getId).toList(),
+                commentsRepository::findExistingIds, cacheUpdates::idChecked);
+    }
+
+    private UserResponseDto toDtoAndEvict(User user) {
+        UserResponseDto dto = userMapper.toResponseDto(user);
+        cacheUpdates.evictUser(user.getId());
+        return dto;
     }
 
     @Transactional
@@ -443,4 +426,11 @@ public class UserService {
         }
         return false;
     }
+
+    private record BookKey(String title, long countChapters, long publicYear, BookStatus status) {
+        private static BookKey of(Book book) {
+            return new BookKey(book.getTitle(), book.getCountChapters(), book.getPublicYear(),
+                    book.getBookStatus());
+        }
+    }
 }
\ No newline at end of file
@@ -6,7 +6,7 @@ import com.univer.bookcom.model.User;
 import com.univer.bookcom.model.dto.request.BookRequestDto;
 import com.univer.bookcom.model.dto.response.BookResponseDto;
 import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.List;
 import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 
@@ -24,22 +24,17 @@ public class BookMapper {
     }
 
     public BookResponseDto toResponseDto(Book book) {
-        BookResponseDto dto = new BookResponseDto();
-        dto.setId(book.getId());
-        dto.setTitle(book.getTitle());
-        dto.setCountChapters(book.getCountChapters());
-        dto.setPublicYear(book.getPublicYear());
-        dto.setDescription(book.getDescription());
-        dto.setBookStatus(book.getBookStatus().name());
-
+        List<String> authorNames;
         if (book.getAuthors() != null && Hibernate.isInitialized(book.getAuthors())) {
-            dto.setAuthorNames(book.getAuthors().stream()
+            authorNames = book.getAuthors().stream()
                     .map(User::getName)
-                    .collect(Collectors.toList()));
+                    .toList();
         } else {
-            dto.setAuthorNames(Collections.emptyList());
+            authorNames = Collections.emptyList();
         }
 
-        return dto;
+        return new BookResponseDto(book.getId(), book.getTitle(), book.getCountChapters(),
+                book.getPublicYear(), book.getDescription(), book.getBookStatus().name(),
+                authorNames);
     }
 }
\ No newline at end of file
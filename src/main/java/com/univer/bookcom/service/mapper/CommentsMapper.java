@@ -26,20 +26,12 @@ public class CommentsMapper {
     }
 
     public CommentsResponseDto toResponseDto(Comments comment) {
-        CommentsResponseDto dto = new CommentsResponseDto();
-        dto.setId(comment.getId());
-        dto.setText(comment.getText());
-        dto.setCreatedAt(comment.getCreatedAt());
-
-        if (comment.getUser() != null) {
-            dto.setUserName(comment.getUser().getName());
-            dto.setUserId(comment.getUser().getId());
-        }
-
-        if (comment.getBook() != null) {
-            dto.setBookTitle(comment.getBook().getTitle());
-        }
-
-        return dto;
+        User user = comment.getUser();
+        Book book = comment.getBook();
+        return new CommentsResponseDto(comment.getId(), comment.getText(),
+                comment.getCreatedAt(),
+                user != null ? user.getName() : null,
+                book != null ? book.getTitle() : null,
+                user != null ? user.getId() : null);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.univer.bookcom.service.mapper;
 
+import com.univer.bookcom.cache.CacheContainer;
+import com.univer.bookcom.cache.CacheUpdates;
 import com.univer.bookcom.model.Book;
 import com.univer.bookcom.model.Comments;
 import com.univer.bookcom.model.User;
@@ -7,7 +9,8 @@ import com.univer.bookcom.model.dto.request.UserRequestDto;
 import com.univer.bookcom.model.dto.response.UserResponseDto;
 import com.univer.bookcom.repository.BookRepository;
 import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.Set;
 import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 
@@ -15,9 +18,14 @@ import org.springframework.stereotype.Component;
 public class UserMapper {
 
     private final BookRepository bookRepository;
+    private final CacheContainer cacheContainer;
+    private final CacheUpdates cacheUpdates;
 
-    public UserMapper(BookRepository bookRepository) {
+    public UserMapper(BookRepository bookRepository, CacheContainer cacheContainer,
+                      CacheUpdates cacheUpdates) {
         this.bookRepository = bookRepository;
+        this.cacheContainer = cacheContainer;
+        this.cacheUpdates = cacheUpdates;
     }
 
     public User toEntity(UserRequestDto dto) {
@@ -29,28 +37,29 @@ public class UserMapper {
     }
 
     public UserResponseDto toResponseDto(User user) {
-        UserResponseDto dto = new UserResponseDto();
-        dto.setId(user.getId());
-        dto.setName(user.getName());
-        dto.setEmail(user.getEmail());
-
+        List<String> bookTitles;
         if (user.getBooks() != null && Hibernate.isInitialized(user.getBooks())) {
-            dto.setBookTitles(user.getBooks().stream()
-                    .filter(book -> bookRepository.existsById(book.getId()))
+            Set<Long> existing = cacheContainer.getBookIds().existing(
+                    user.getBooks().stream().map(Book::getId).toList(),
+                    bookRepository::findExistingIds, cacheUpdates::idChecked);
+            bookTitles = user.getBooks().stream()
+                    .filter(book -> existing.contains(book.getId()))
                     .map(Book::getTitle)
-                    .collect(Collectors.toList()));
+                    .toList();
         } else {
-            dto.setBookTitles(Collections.emptyList());
+            bookTitles = Collections.emptyList();
         }
 
+        List<String> commentTexts;
         if (user.getComments() != null && Hibernate.isInitialized(user.getComments())) {
-            dto.setCommentTexts(user.getComments().stream()
+            commentTexts = user.getComments().stream()
                     .map(Comments::getText)
-                    .collect(Collectors.toList()));
+                    .toList();
         } else {
-            dto.setCommentTexts(Collections.emptyList());
+            commentTexts = Collections.emptyList();
         }
 
-        return dto;
+        return new UserResponseDto(user.getId(), user.getName(), user.getEmail(), bookTitles,
+                commentTexts);
     }
 }
\ No newline at end of file
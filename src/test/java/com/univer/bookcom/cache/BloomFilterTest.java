@@ -0,0 +1,39 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+    private static final int INSERTIONS = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void neverReportsInsertedKeyAsMissing() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (long key = 0; key < INSERTIONS; key++) {
+            filter.put(key * 31 + 7);
+        }
+
+        for (long key = 0; key < INSERTIONS; key++) {
+            assertThat(filter.mightContain(key * 31 + 7)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfigured() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        for (long key = 0; key < INSERTIONS; key++) {
+            filter.put(key);
+        }
+
+        int falsePositives = 0;
+        for (long key = INSERTIONS; key < 2L * INSERTIONS; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / INSERTIONS).isLessThan(3 * FALSE_POSITIVE_RATE);
+    }
+}
\ No newline at end of file
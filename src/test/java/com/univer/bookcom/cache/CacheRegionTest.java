@@ -0,0 +1,183 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class CacheRegionTest {
+    // 16 записей - один сегмент: окно на 1 запись и основная область на 15.
+    private static final int CAPACITY = 16;
+
+    @Test
+    void frequentKeysSurviveScanOfOneOffKeys() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+        long[] hot = LongStream.rangeClosed(1, CAPACITY - 1).toArray();
+        for (long key : hot) {
+            region.put(key, new CacheEntry<>("hot-" + key));
+        }
+        for (int i = 0; i < 4; i++) {
+            for (long key : hot) {
+                assertThat(region.get(key)).isNotNull();
+            }
+        }
+
+        for (long key = 1000; key < 1060; key++) {
+            region.put(key, new CacheEntry<>("cold-" + key));
+        }
+
+        assertThat(region.size()).isLessThanOrEqualTo(CAPACITY);
+        for (long key : hot) {
+            assertThat(region.containsKey(key)).as("горячий ключ %d", key).isTrue();
+        }
+    }
+
+    @Test
+    void sizeStaysWithinCapacity() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+
+        for (long key = 0; key < 500; key++) {
+            region.put(key, new CacheEntry<>("value-" + key));
+        }
+
+        assertThat(region.size()).isLessThanOrEqualTo(CAPACITY);
+        assertThat(region.getStats().getEvictionCount(RemovalCause.SIZE)).isGreaterThan(0);
+    }
+
+    @Test
+    void entryExpiresAfterWrite() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY,
+                Duration.ofMinutes(1), null);
+        long twoMinutesAgo = System.currentTimeMillis() - Duration.ofMinutes(2).toMillis();
+        region.put(1L, new CacheEntry<>("stale", twoMinutesAgo));
+        region.put(2L, new CacheEntry<>("fresh"));
+
+        assertThat(region.get(1L)).isNull();
+        assertThat(region.containsKey(1L)).isFalse();
+        assertThat(region.get(2L).getValue()).isEqualTo("fresh");
+    }
+
+    @Test
+    void loaderResultIsCachedOnMiss() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+        AtomicInteger loads = new AtomicInteger();
+
+        Function<Long, String> loader = key -> "loaded-" + loads.incrementAndGet();
+
+        assertThat(region.get(1L, loader)).isEqualTo("loaded-1");
+        assertThat(region.get(1L, loader)).isEqualTo("loaded-1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void removeDuringLoadDiscardsLoadedValue() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+
+        String value = region.get(1L, key -> {
+            region.remove(key);
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(region.containsKey(1L)).isFalse();
+    }
+
+    @Test
+    void expiredEntryIsNotServedFromOlderOverflowCopy() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY,
+                Duration.ofMinutes(1), null);
+        MapTier tier = new MapTier();
+        region.enableOverflowTier(tier, 1);
+        for (long key = 2; key <= CAPACITY; key++) {
+            region.put(key, new CacheEntry<>("value-" + key));
+        }
+        region.put(1L, new CacheEntry<>("v1"));
+        // Кандидат из окна не чаще жертв из основной области и уходит во второй уровень.
+        region.put(CAPACITY + 1L, new CacheEntry<>("value-17"));
+        assertThat(tier.entries).containsKey(1L);
+
+        long twoMinutesAgo = System.currentTimeMillis() - Duration.ofMinutes(2).toMillis();
+        region.put(1L, new CacheEntry<>("v2", twoMinutesAgo));
+
+        assertThat(tier.entries).doesNotContainKey(1L);
+        assertThat(region.get(1L, key -> "loaded")).isEqualTo("loaded");
+    }
+
+    @Test
+    void putDuringLoadKeepsPutValue() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+
+        String value = region.get(1L, key -> {
+            region.put(key, new CacheEntry<>("fresh"));
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(region.get(1L).getValue()).isEqualTo("fresh");
+    }
+
+    @Test
+    void loadAllLoadsOnlyMissingKeysInOneCall() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+        region.put(1L, new CacheEntry<>("cached"));
+        List<Collection<Long>> calls = new ArrayList<>();
+
+        region.loadAll(List.of(1L, 2L, 3L, 4L), keys -> {
+            calls.add(keys);
+            // Ключ 4 в БД отсутствует, ключ 3 инвалидирован во время загрузки.
+            region.remove(3L);
+            return Map.of(2L, "loaded-2", 3L, "stale-3");
+        });
+
+        assertThat(calls).containsExactly(List.of(2L, 3L, 4L));
+        assertThat(region.get(1L).getValue()).isEqualTo("cached");
+        assertThat(region.get(2L).getValue()).isEqualTo("loaded-2");
+        assertThat(region.containsKey(3L)).isFalse();
+        assertThat(region.containsKey(4L)).isFalse();
+    }
+
+    @Test
+    void nullFromLoaderIsNotCached() {
+        CacheRegion<String> region = new CacheRegion<>("test", CAPACITY, null, null);
+
+        assertThat(region.get(1L, key -> null)).isNull();
+        assertThat(region.size()).isZero();
+    }
+
+    private static final class MapTier implements OverflowTier<String> {
+        private final Map<Long, CacheEntry<String>> entries = new HashMap<>();
+
+        @Override
+        public void store(Long key, CacheEntry<String> entry) {
+            entries.put(key, entry);
+        }
+
+        @Override
+        public CacheEntry<String> peek(Long key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public CacheEntry<String> take(Long key) {
+            return entries.remove(key);
+        }
+
+        @Override
+        public void invalidate(Long key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            entries.clear();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheSnapshotTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void keysRoundTrip() throws IOException {
+        Map<String, List<Long>> keys = new LinkedHashMap<>();
+        keys.put("books", List.of(3L, 1L, Long.MAX_VALUE));
+        keys.put("пользователи", List.of());
+        keys.put("comments", List.of(-5L));
+        Path path = dir.resolve("snapshot.bin");
+
+        CacheSnapshot.write(path, keys);
+        Map<String, long[]> read = CacheSnapshot.read(path);
+
+        assertThat(read).containsOnlyKeys("books", "пользователи", "comments");
+        assertThat(read.get("books")).containsExactly(3L, 1L, Long.MAX_VALUE);
+        assertThat(read.get("пользователи")).isEmpty();
+        assertThat(read.get("comments")).containsExactly(-5L);
+        assertThat(dir.resolve("snapshot.bin.tmp")).doesNotExist();
+    }
+
+    @Test
+    void unknownFormatIsRejected() throws IOException {
+        Path path = dir.resolve("snapshot.bin");
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThatThrownBy(() -> CacheSnapshot.read(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws IOException {
+        Path path = dir.resolve("snapshot.bin");
+        CacheSnapshot.write(path, Map.of("books", List.of(1L, 2L, 3L)));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThatThrownBy(() -> CacheSnapshot.read(path)).isInstanceOf(IOException.class);
+    }
+}
\ No newline at end of file
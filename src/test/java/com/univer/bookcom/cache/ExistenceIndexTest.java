@@ -0,0 +1,61 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class ExistenceIndexTest {
+    private final ExistenceIndex index = new ExistenceIndex("test", 1000, 0.01, 100,
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+    private final List<ExistenceIndex.Check> checks = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void checkResultIsRememberedAfterApply() {
+        index.exists(1L, loader(true), checks::add);
+        checks.forEach(ExistenceIndex.Check::remember);
+
+        assertThat(index.exists(1L, loader(false), checks::add)).isTrue();
+        assertThat(loads).hasValue(1);
+    }
+
+    // Подтверждение применяется после фиксации и может опоздать за удалением,
+    // выполненным после начала проверки.
+    @Test
+    void confirmationCheckedBeforeDeleteIsDiscarded() {
+        index.exists(1L, id -> {
+            loads.incrementAndGet();
+            index.remove(id);
+            return true;
+        }, checks::add);
+        checks.forEach(ExistenceIndex.Check::remember);
+
+        assertThat(index.exists(1L, loader(true), checks::add)).isFalse();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void missingResultCheckedBeforeCreateIsDiscarded() {
+        index.existing(List.of(1L), ids -> {
+            loads.incrementAndGet();
+            index.add(1L);
+            return List.of();
+        }, checks::add);
+        checks.forEach(ExistenceIndex.Check::remember);
+
+        assertThat(index.exists(1L, loader(false), checks::add)).isTrue();
+        assertThat(loads).hasValue(1);
+    }
+
+    private Predicate<Long> loader(boolean exists) {
+        return id -> {
+            loads.incrementAndGet();
+            return exists;
+        };
+    }
+}
\ No newline at end of file
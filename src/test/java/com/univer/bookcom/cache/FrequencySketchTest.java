@@ -0,0 +1,51 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsIncrementsPerKey() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42);
+        }
+        sketch.increment(7);
+
+        assertThat(sketch.frequency(42)).isEqualTo(5);
+        assertThat(sketch.frequency(7)).isEqualTo(1);
+        assertThat(sketch.frequency(1_000_000)).isZero();
+    }
+
+    @Test
+    void frequencyIsCappedAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(1);
+        }
+
+        assertThat(sketch.frequency(1)).isEqualTo(15);
+    }
+
+    @Test
+    void countersAreHalvedAfterSamplePeriod() {
+        // Ёмкость 16: старение наступает после 160 увеличений счётчиков. Насыщенные
+        // счётчики ключа 1 коллизии не меняют, поэтому до старения он держится на 15.
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(1);
+        }
+
+        long key = 100;
+        while (sketch.frequency(1) == 15 && key < 10_000) {
+            sketch.increment(key++);
+        }
+
+        assertThat(key).isLessThan(10_000);
+        assertThat(sketch.frequency(1)).isEqualTo(7);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongLongMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        LongLongMap map = new LongLongMap();
+
+        map.put(1L, 10L);
+        map.put(1L, 11L);
+
+        assertThat(map.get(1L)).isEqualTo(11L);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.remove(1L)).isEqualTo(11L);
+        assertThat(map.get(1L)).isEqualTo(LongLongMap.NO_VALUE);
+        assertThat(map.remove(1L)).isEqualTo(LongLongMap.NO_VALUE);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void emptyMarkerIsUsableAsKey() {
+        LongLongMap map = new LongLongMap();
+
+        map.put(Long.MIN_VALUE, 5L);
+
+        assertThat(map.get(Long.MIN_VALUE)).isEqualTo(5L);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.remove(Long.MIN_VALUE)).isEqualTo(5L);
+        assertThat(map.size()).isZero();
+    }
+
+    // Случайная смесь операций с ростом таблицы и удалениями посреди цепочек сверяется
+    // с HashMap.
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        LongLongMap map = new LongLongMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertThat(map.remove(key)).isEqualTo(removed != null ? removed
+                        : LongLongMap.NO_VALUE);
+            } else {
+                long value = random.nextInt(Integer.MAX_VALUE);
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongLongMap.NO_VALUE));
+        }
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.get(0L)).isEqualTo(LongLongMap.NO_VALUE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OffHeapTierTest {
+    private static final int SLAB_SIZE = 1024;
+    private static final int SLAB_COUNT = 3;
+
+    private final OffHeapTier<BookResponseDto> tier =
+            new OffHeapTier<>("test", new BookRecordCodec(), SLAB_SIZE, SLAB_COUNT);
+
+    @Test
+    void recordRoundTripsThroughCodec() {
+        BookResponseDto book = new BookResponseDto(1L, "Название", 12L, 2020L,
+                "Описание книги", "COMPLETED", List.of("Иван Иванов", "Мария Петрова"));
+        CacheEntry<BookResponseDto> stored = new CacheEntry<>(book);
+
+        tier.store(1L, stored);
+        CacheEntry<BookResponseDto> read = tier.peek(1L);
+
+        assertThat(read.getTimestamp()).isEqualTo(stored.getTimestamp());
+        assertThat(read.getValue()).usingRecursiveComparison().isEqualTo(book);
+    }
+
+    @Test
+    void nullFieldsRoundTrip() {
+        BookResponseDto book = new BookResponseDto(2L, null, null, null, null, null, null);
+
+        tier.store(2L, new CacheEntry<>(book));
+
+        assertThat(tier.peek(2L).getValue()).usingRecursiveComparison().isEqualTo(book);
+    }
+
+    @Test
+    void takeRemovesRecord() {
+        tier.store(1L, new CacheEntry<>(book(1L)));
+
+        assertThat(tier.take(1L)).isNotNull();
+        assertThat(tier.peek(1L)).isNull();
+        assertThat(tier.size()).isZero();
+    }
+
+    @Test
+    void oldestSlabIsReclaimedWhenRingWraps() {
+        for (long key = 0; key < 100; key++) {
+            tier.store(key, new CacheEntry<>(book(key)));
+        }
+
+        assertThat(tier.peek(0L)).isNull();
+        assertThat(tier.peek(99L).getValue().getId()).isEqualTo(99L);
+        assertThat(tier.size()).isLessThan(100);
+        assertThat(tier.getStats().getEvictionCount(RemovalCause.SIZE)).isPositive();
+    }
+
+    @Test
+    void rewrittenKeySurvivesReclaimOfItsOldSlab() {
+        tier.store(0L, new CacheEntry<>(book(0L)));
+        for (long key = 1; key < 100; key++) {
+            tier.store(key, new CacheEntry<>(book(key)));
+            // Ключ 0 переписывается в текущий сляб, прежде чем его старый сляб очистится.
+            if (key % 5 == 0) {
+                tier.store(0L, new CacheEntry<>(book(0L)));
+            }
+        }
+
+        assertThat(tier.peek(0L)).isNotNull();
+    }
+
+    @Test
+    void recordLargerThanSlabIsSkipped() {
+        BookResponseDto book = new BookResponseDto(1L, "x".repeat(SLAB_SIZE), 1L, 2020L,
+                null, null, List.of());
+
+        tier.store(1L, new CacheEntry<>(book));
+
+        assertThat(tier.peek(1L)).isNull();
+    }
+
+    private static BookResponseDto book(long id) {
+        return new BookResponseDto(id, "Книга " + id, 10L, 2020L, "Описание", "ONGOING",
+                List.of("Автор"));
+    }
+}
\ No newline at end of file
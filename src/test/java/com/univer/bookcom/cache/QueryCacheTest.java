@@ -0,0 +1,75 @@
+package com.univer.bookcom.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class QueryCacheTest {
+
+    private final QueryCache<Long> cache =
+            new QueryCache<>("test", 100, Duration.ofMinutes(5), Function.identity());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void repeatedQueryIsServedFromCache() {
+        load("a", 1L, 2L);
+        load("a", 1L, 2L);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void itemTagInvalidatesOnlyQueriesContainingIt() {
+        load("a", 1L, 2L);
+        load("b", 3L);
+
+        cache.invalidate(List.of(QueryCache.idTag(2L)));
+        load("a", 1L, 2L);
+        load("b", 3L);
+
+        assertThat(loads).hasValue(3);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void queryTagInvalidatesItsResult() {
+        load("a", 1L);
+
+        cache.invalidate(List.of("a"));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidationDuringLoadKeepsResultOutOfCache() {
+        List<Long> result = cache.get("a", () -> {
+            cache.invalidate(List.of(QueryCache.idTag(1L)));
+            return List.of(1L);
+        });
+
+        assertThat(result).containsExactly(1L);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void oldestQueryIsEvictedOverCapacity() {
+        QueryCache<Long> small = new QueryCache<>("small", 2, null, Function.identity());
+        small.get("a", () -> List.of(1L));
+        small.get("b", () -> List.of(2L));
+        small.get("c", () -> List.of(3L));
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.evict("a")).isFalse();
+    }
+
+    private void load(String key, Long... ids) {
+        cache.get(key, () -> {
+            loads.incrementAndGet();
+            return List.of(ids);
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.univer.bookcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.univer.bookcom.cache.CacheContainer;
+import com.univer.bookcom.config.SchemaInitializer;
+import com.univer.bookcom.config.SequenceInitializer;
+import com.univer.bookcom.model.Book;
+import com.univer.bookcom.model.BookStatus;
+import com.univer.bookcom.model.User;
+import com.univer.bookcom.model.dto.response.BookResponseDto;
+import com.univer.bookcom.repository.BookRepository;
+import com.univer.bookcom.repository.CommentsRepository;
+import com.univer.bookcom.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Регрессия N+1: списки и поиск книг должны читаться вместе с именами авторов
+// фиксированным числом запросов, сколько бы книг ни вернулось.
+@SpringBootTest
+@ActiveProfiles("test")
+class BookServiceQueryCountTest {
+    private static final int BOOKS = 30;
+    private static final int AUTHORS_PER_BOOK = 2;
+    private static final String TITLE = "Одинаковое название";
+    private static final long YEAR = 2020;
+
+    @MockitoBean
+    private SchemaInitializer schemaInitializer;
+
+    @MockitoBean
+    private SequenceInitializer sequenceInitializer;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentsRepository commentsRepository;
+
+    @Autowired
+    private CacheContainer cacheContainer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            commentsRepository.deleteAll();
+            bookRepository.deleteAll();
+            userRepository.deleteAll();
+            List<User> authors = new ArrayList<>();
+            for (int i = 0; i < AUTHORS_PER_BOOK; i++) {
+                User author = new User();
+                author.setName("Автор " + i);
+                author.setEmail("author" + i + "@example.com");
+                author.setPassword("password");
+                authors.add(userRepository.save(author));
+            }
+            for (int i = 0; i < BOOKS; i++) {
+                Book book = new Book();
+                book.setTitle(TITLE);
+                book.setCountChapters(10);
+                book.setPublicYear(YEAR);
+                book.setDescription("Описание " + i);
+                book.setBookStatus(BookStatus.COMPLETED);
+                authors.forEach(book::addAuthor);
+                bookRepository.save(book);
+            }
+        });
+        cacheContainer.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllBooksLoadsAuthorsInOneQuery() {
+        List<BookResponseDto> books = bookService.getAllBooks(0, 20).getItems();
+
+        assertThat(books).hasSize(20);
+        assertAuthorsLoaded(books);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findBooksByTitleLoadsAuthorsInOneQuery() {
+        List<BookResponseDto> books = bookService.findBooksByTitle(TITLE);
+
+        assertThat(books).hasSize(BOOKS);
+        assertAuthorsLoaded(books);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findBooksByAuthorLoadsAuthorsInOneQuery() {
+        List<BookResponseDto> books = bookService.findBooksByAuthor("Автор 0");
+
+        assertThat(books).hasSize(BOOKS);
+        assertAuthorsLoaded(books);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findBooksByPublicYearLoadsAuthorsInOneQuery() {
+        List<BookResponseDto> books = bookService.findBooksByPublicYear(YEAR);
+
+        assertThat(books).hasSize(BOOKS);
+        assertAuthorsLoaded(books);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findBooksByStatusLoadsAuthorsInOneQuery() {
+        List<BookResponseDto> books = bookService.findBooksByStatus("COMPLETED");
+
+        assertThat(books).hasSize(BOOKS);
+        assertAuthorsLoaded(books);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void preloadBooksWarmsCacheInOneQuery() {
+        List<Long> ids = bookRepository.findAllIds();
+        statistics.clear();
+
+        bookService.preloadBooks(ids);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(ids).allSatisfy(id ->
+                assertThat(cacheContainer.getBookCache().containsKey(id)).isTrue());
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCache() {
+        bookService.findBooksByTitle(TITLE);
+        statistics.clear();
+
+        assertThat(bookService.findBooksByTitle(TITLE)).hasSize(BOOKS);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private static void assertAuthorsLoaded(List<BookResponseDto> books) {
+        assertThat(books).allSatisfy(book ->
+                assertThat(book.getAuthorNames()).containsExactly("Автор 0", "Автор 1"));
+    }
+}
\ No newline at end of file
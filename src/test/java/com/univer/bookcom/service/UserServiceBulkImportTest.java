@@ -0,0 +1,93 @@
+package com.univer.bookcom.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.univer.bookcom.config.SchemaInitializer;
+import com.univer.bookcom.config.SequenceInitializer;
+import com.univer.bookcom.model.User;
+import com.univer.bookcom.model.dto.request.BookRequestDto;
+import com.univer.bookcom.model.dto.response.BookImportResultDto;
+import com.univer.bookcom.repository.BookRepository;
+import com.univer.bookcom.repository.CommentsRepository;
+import com.univer.bookcom.repository.UserRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Пакетное добавление проверяет строки по тем же ограничениям, что и одиночное создание
+// книги: неверная строка отклоняется, остальные сохраняются.
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceBulkImportTest {
+
+    @MockitoBean
+    private SchemaInitializer schemaInitializer;
+
+    @MockitoBean
+    private SequenceInitializer sequenceInitializer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentsRepository commentsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = transactionTemplate.execute(status -> {
+            commentsRepository.deleteAll();
+            bookRepository.deleteAll();
+            userRepository.deleteAll();
+            User user = new User();
+            user.setName("Автор");
+            user.setEmail("author@example.com");
+            user.setPassword("password");
+            return userRepository.save(user).getId();
+        });
+    }
+
+    @Test
+    void invalidRowIsRejectedAndOthersAreCreated() {
+        BookRequestDto tooOld = book("Старая книга", 999L, "Описание");
+        BookRequestDto noDescription = book("Без описания", 2020L, " ");
+
+        List<BookImportResultDto> results = userService.addBooksToUserBulkDto(userId,
+                List.of(book("Первая", 2020L, "Описание"), tooOld, noDescription,
+                        book("Вторая", 2021L, "Описание")));
+
+        assertThat(results).extracting(BookImportResultDto::getStatus).containsExactly(
+                BookImportResultDto.Status.CREATED, BookImportResultDto.Status.INVALID,
+                BookImportResultDto.Status.INVALID, BookImportResultDto.Status.CREATED);
+        assertThat(results.get(1).getMessage())
+                .isEqualTo("Год публикации должен быть не ранее 1000");
+        assertThat(results.get(2).getMessage())
+                .isEqualTo("Описание книги не может быть пустым");
+        assertThat(bookRepository.count()).isEqualTo(2);
+    }
+
+    private static BookRequestDto book(String title, Long year, String description) {
+        BookRequestDto book = new BookRequestDto();
+        book.setTitle(title);
+        book.setCountChapters(10L);
+        book.setPublicYear(year);
+        book.setDescription(description);
+        book.setBookStatus("COMPLETED");
+        return book;
+    }
+}
\ No newline at end of file